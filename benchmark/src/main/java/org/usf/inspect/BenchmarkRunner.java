@@ -0,0 +1,23 @@
+package org.usf.inspect;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH entry point, same arguments as {@link org.openjdk.jmh.Main} + allocation rate (gc profiler) by default.
+ * 
+ * @author u$f
+ *
+ */
+public final class BenchmarkRunner {
+
+	public static void main(String[] args) throws Exception {
+		var opts = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class) //gc.alloc.rate.norm : bytes per operation
+				.build();
+		new Runner(opts).run();
+	}
+}
@@ -0,0 +1,41 @@
+package org.usf.inspect.core;
+
+import static java.time.Clock.systemUTC;
+import static org.usf.inspect.core.InspectConfiguration.createObjectMapper;
+import static org.usf.inspect.core.SessionContextManager.clearContext;
+import static org.usf.inspect.core.SessionContextManager.createBatchSession;
+import static org.usf.inspect.core.SessionContextManager.setActiveContext;
+import static org.usf.inspect.core.TraceDispatcherHub.hub;
+import static org.usf.inspect.core.TraceDispatcherHub.initializeTraceHub;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Enabled hub without remote exporter (traces are dropped on dispatch) + active session.
+ * 
+ * @author u$f
+ *
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class BenchmarkSupport {
+	
+	public static synchronized void enableTracing() {
+		if(!hub().getConfiguration().isEnabled()) {
+			var conf = new InspectCollectorConfiguration();
+			conf.setEnabled(true);
+			initializeTraceHub(conf.validate(), createObjectMapper());
+		}
+	}
+
+	public static AbstractSessionUpdate openSession() { //current thread
+		var ses = createBatchSession(systemUTC().instant()).createCallback();
+		setActiveContext(ses);
+		return ses;
+	}
+	
+	public static void closeSession(AbstractSessionUpdate ses) {
+		ses.setEnd(systemUTC().instant());
+		clearContext(ses);
+	}
+}
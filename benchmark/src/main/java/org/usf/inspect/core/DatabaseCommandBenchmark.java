@@ -0,0 +1,47 @@
+package org.usf.inspect.core;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.usf.inspect.core.DatabaseCommand.extractCommand;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@State(Scope.Thread)
+public class DatabaseCommandBenchmark {
+	
+	@Param({
+		"SELECT ID, NAME FROM USERS WHERE ID = ?",
+		"/* hint */ WITH T AS (SELECT * FROM ORDERS WHERE STATUS = 'OPEN') UPDATE ITEMS SET QTY = 0 WHERE ORDER_ID IN (SELECT ID FROM T)",
+		"INSERT INTO EVENTS(ID, TYPE, PAYLOAD) VALUES (?, ?, ?)",
+		"{call UPDATE_STOCK(?, ?)}"})
+	private String sql;
+
+	@Benchmark
+	public String baseline() { //minimal work: first token
+		var i = sql.indexOf(' ');
+		return i < 0 ? sql : sql.substring(0, i);
+	}
+
+	@Benchmark
+	public DatabaseCommand extract() {
+		return extractCommand(sql);
+	}
+}
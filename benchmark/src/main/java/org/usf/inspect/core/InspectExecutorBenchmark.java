@@ -0,0 +1,92 @@
+package org.usf.inspect.core;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.usf.inspect.core.BenchmarkSupport.closeSession;
+import static org.usf.inspect.core.BenchmarkSupport.enableTracing;
+import static org.usf.inspect.core.BenchmarkSupport.openSession;
+import static org.usf.inspect.core.InspectExecutor.call;
+
+import java.time.Instant;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.usf.inspect.core.InspectExecutor.ExecutionListener;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@State(Scope.Thread)
+public class InspectExecutorBenchmark {
+	
+	private AbstractSessionUpdate session;
+	private Blackhole bh;
+	private ExecutionListener<Object> instantListener;
+	private ExecutionListener<Object> monotonicListener;
+	private int value;
+
+	@Setup
+	public void setup(Blackhole bh) {
+		enableTracing();
+		this.session = openSession();
+		this.bh = bh;
+		this.instantListener = (s,e,o,t)-> bh.consume(e);
+		this.monotonicListener = new ExecutionListener<>() {
+			
+			@Override
+			public void handle(Instant start, Instant end, Object obj, Throwable thrw) {
+				bh.consume(end);
+			}
+			
+			@Override
+			public void handle(MonotonicClock clock, long start, long end, Object obj, Throwable thrw) {
+				bh.consume(end);
+			}
+		};
+	}
+	
+	@TearDown
+	public void tearDown() {
+		closeSession(session);
+	}
+
+	@Benchmark
+	public Object baseline() {
+		return work();
+	}
+	
+	@Benchmark
+	public Object noListener() {
+		return call(this::work, null);
+	}
+	
+	@Benchmark
+	public Object instantListener() { //builds start & end instants
+		return call(this::work, instantListener);
+	}
+	
+	@Benchmark
+	public Object monotonicListener() { //see StatefulMonitor.traceStep
+		return call(this::work, monotonicListener);
+	}
+	
+	Object work() {
+		return ++value;
+	}
+}
@@ -0,0 +1,61 @@
+package org.usf.inspect.core;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.usf.inspect.core.BenchmarkSupport.closeSession;
+import static org.usf.inspect.core.BenchmarkSupport.enableTracing;
+import static org.usf.inspect.core.BenchmarkSupport.openSession;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * context propagation : wrap + run on the same thread (executor hand-off excluded)
+ * 
+ * @author u$f
+ *
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@State(Scope.Thread)
+public class SessionContextBenchmark {
+	
+	private AbstractSessionUpdate session;
+	private Runnable task;
+	private int value;
+
+	@Setup
+	public void setup() {
+		enableTracing();
+		this.session = openSession();
+		this.task = ()-> value++;
+	}
+	
+	@TearDown
+	public void tearDown() {
+		closeSession(session);
+	}
+
+	@Benchmark
+	public int baseline() {
+		task.run();
+		return value;
+	}
+
+	@Benchmark
+	public int aroundRunnable() {
+		SessionContextManager.aroundRunnable(task).run();
+		return value;
+	}
+}
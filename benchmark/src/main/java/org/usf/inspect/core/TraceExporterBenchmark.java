@@ -0,0 +1,95 @@
+package org.usf.inspect.core;
+
+import static java.io.OutputStream.nullOutputStream;
+import static java.time.Clock.systemUTC;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.usf.inspect.core.DatabaseAction.EXECUTE;
+import static org.usf.inspect.core.DatabaseAction.FETCH;
+import static org.usf.inspect.core.DatabaseCommand.SELECT;
+import static org.usf.inspect.core.InspectConfiguration.createObjectMapper;
+import static org.usf.inspect.core.MainSessionType.BATCH;
+import static org.usf.inspect.core.PayloadFormat.SMILE;
+import static org.usf.inspect.core.RestTraceExporter.writeTraces;
+import static org.usf.inspect.core.SessionContextManager.nextId;
+import static org.usf.inspect.core.SmilePayload.binaryMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * RestTraceExporter payload serialization, 1 session : N requests : N stages
+ * 
+ * @author u$f
+ *
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@State(Scope.Thread)
+public class TraceExporterBenchmark {
+	
+	@Param({"JSON", "SMILE"})
+	private PayloadFormat format;
+	@Param({"false", "true"})
+	private boolean gzip;
+	@Param({"1000"})
+	private int size;
+	
+	private ObjectMapper mapper;
+	private ObjectWriter writer;
+	private List<EventTrace> traces;
+
+	@Setup
+	public void setup() {
+		this.mapper = format == SMILE ? binaryMapper(createObjectMapper()) : createObjectMapper();
+		this.writer = mapper.writerFor(EventTrace.class);
+		this.traces = sampleTraces(size);
+	}
+
+	@Benchmark
+	public byte[] baseline() throws IOException { //RestTemplate.put(array), buffered
+		return mapper.writeValueAsBytes(traces.toArray(EventTrace[]::new));
+	}
+	
+	@Benchmark
+	public void streaming() throws IOException {
+		writeTraces(nullOutputStream(), traces, writer, gzip);
+	}
+	
+	static List<EventTrace> sampleTraces(int size) {
+		var now = systemUTC().instant();
+		var ses = new MainSessionSignal(nextId(), now, "main", BATCH.name());
+		var list = new ArrayList<EventTrace>(size);
+		list.add(ses);
+		while(list.size() < size) {
+			var req = new DatabaseRequestSignal(nextId(), ses.getId(), now, "main");
+			req.setHost("localhost");
+			req.setName("benchmark");
+			var upd = req.createCallback();
+			list.add(req);
+			list.add(upd.createStage(EXECUTE, now, now.plusMillis(3), null, SELECT, new long[] {10}));
+			list.add(upd.createStage(FETCH, now.plusMillis(3), now.plusMillis(5), null, null, new long[] {10}));
+			upd.setEnd(now.plusMillis(6));
+			list.add(upd);
+		}
+		return list;
+	}
+}
@@ -0,0 +1,58 @@
+package org.usf.inspect.core;
+
+import static java.time.Clock.systemUTC;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.usf.inspect.core.BenchmarkSupport.enableTracing;
+import static org.usf.inspect.core.LogEntry.Level.INFO;
+import static org.usf.inspect.core.SessionContextManager.nextId;
+import static org.usf.inspect.core.TraceDispatcherHub.hub;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * emitTrace under contention, the queue is drained by the scheduler thread (no remote exporter).
+ * 
+ * @author u$f
+ *
+ */
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@State(Scope.Benchmark)
+public class TraceHubBenchmark {
+	
+	private TraceHub hub;
+	private LogEntry trace;
+
+	@Setup
+	public void setup() {
+		enableTracing();
+		this.hub = hub();
+		this.trace = new LogEntry(systemUTC().instant(), INFO, "benchmark", null);
+		this.trace.setSessionId(nextId());
+	}
+
+	@Benchmark
+	public void baseline(Blackhole bh) {
+		bh.consume(trace);
+	}
+
+	@Benchmark
+	public boolean emitTrace() { //may be rejected, see OverflowPolicy
+		return hub.emitTrace(trace);
+	}
+}
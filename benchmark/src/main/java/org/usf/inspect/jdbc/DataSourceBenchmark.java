@@ -0,0 +1,89 @@
+package org.usf.inspect.jdbc;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.usf.inspect.core.BenchmarkSupport.closeSession;
+import static org.usf.inspect.core.BenchmarkSupport.enableTracing;
+import static org.usf.inspect.core.BenchmarkSupport.openSession;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.usf.inspect.core.AbstractSessionUpdate;
+
+/**
+ * Statement.executeQuery + ResultSet.next against an in-memory H2 database, raw vs {@link DataSourceWrapper}.
+ * 
+ * @author u$f
+ *
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@State(Scope.Thread)
+public class DataSourceBenchmark {
+	
+	@Param({"1", "100"})
+	private int rows;
+
+	private AbstractSessionUpdate session;
+	private Connection raw;
+	private Connection wrapped;
+
+	@Setup
+	public void setup() throws SQLException {
+		enableTracing();
+		this.session = openSession();
+		var ds = new JdbcDataSource();
+		ds.setURL("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+		this.raw = ds.getConnection();
+		try(var st = raw.createStatement()) {
+			st.execute("DROP TABLE IF EXISTS ITEM");
+			st.execute("CREATE TABLE ITEM(ID INT PRIMARY KEY, NAME VARCHAR(50))");
+			st.execute("INSERT INTO ITEM SELECT X, 'item-' || X FROM SYSTEM_RANGE(1, 1000)");
+		}
+		this.wrapped = DataSourceWrapper.wrap(ds).getConnection(); //one monitor per connection
+	}
+	
+	@TearDown
+	public void tearDown() throws SQLException {
+		wrapped.close();
+		raw.close();
+		closeSession(session);
+	}
+
+	@Benchmark
+	public int baseline() throws SQLException {
+		return query(raw);
+	}
+
+	@Benchmark
+	public int instrumented() throws SQLException {
+		return query(wrapped);
+	}
+	
+	int query(Connection cnx) throws SQLException {
+		var n = 0;
+		try(var st = cnx.createStatement();
+			var rs = st.executeQuery("SELECT ID, NAME FROM ITEM WHERE ID <= " + rows)) {
+			while(rs.next()) {
+				n += rs.getInt(1);
+			}
+		}
+		return n;
+	}
+}
@@ -4,6 +4,8 @@ import static org.usf.inspect.core.Helper.formatLocation;
 
 import java.time.Instant;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
@@ -25,6 +27,8 @@ public class AbstractSessionSignal implements TraceSignal {
 	private String location; //class.method, URL
 	private String user;
 	private String instanceId;
+	@JsonIgnore
+	private boolean sampled = true; //v1.2 head-based sampling decision
 	
 	public void setLocation(String className, String methodName) {
 		this.location = formatLocation(className, methodName);
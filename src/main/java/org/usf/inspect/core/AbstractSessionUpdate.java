@@ -2,6 +2,7 @@ package org.usf.inspect.core;
 
 import static java.util.Objects.nonNull;
 import static org.usf.inspect.core.Helper.formatLocation;
+import static org.usf.inspect.core.MonotonicClock.anchor;
 import static org.usf.inspect.core.RequestMask.ASYNC;
 
 import java.time.Instant;
@@ -25,6 +26,11 @@ public abstract class AbstractSessionUpdate implements TraceUpdate, AtomicTrace
 	private final String id;
 	private final AtomicInteger threadCount = new AtomicInteger(); // thread safe
 	private final AtomicInteger requestMask = new AtomicInteger(); // thread safe
+	private final AtomicInteger virtualThreadCount = new AtomicInteger(); //v1.2 fan-out : virtual threads bound to this session
+	@JsonIgnore
+	private final MonotonicClock clock = anchor(); //v1.2 one wall-clock read per session
+	@JsonIgnore
+	@Setter private boolean sampled = true; //v1.2 unsampled: no-op context, nested monitors are skipped
 	private Instant end;
 	@Setter private Instant start;
 	@Setter private String name; //title, topic
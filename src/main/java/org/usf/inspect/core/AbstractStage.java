@@ -1,7 +1,14 @@
 package org.usf.inspect.core;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.time.Duration;
 import java.time.Instant;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -23,6 +30,72 @@ public abstract class AbstractStage implements Metric {
 	private String command;
 	private String requestId;
 //	private String threadName
+	// v1.2 monotonic period, instants are built on first read (serialization)
+	@JsonIgnore
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private MonotonicClock clock;
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private long startNanos;
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private long endNanos;
+	
+	public Instant getStart() {
+		if(isNull(start) && nonNull(clock)) {
+			start = clock.instant(startNanos);
+		}
+		return start;
+	}
+	
+	public Instant getEnd() {
+		if(isNull(end) && nonNull(clock)) {
+			end = clock.instant(endNanos);
+		}
+		return end;
+	}
+	
+	public void setPeriod(MonotonicClock clock, long startNanos, long endNanos) {
+		this.clock = clock;
+		this.startNanos = startNanos;
+		this.endNanos = endNanos;
+		this.start = null;
+		this.end = null;
+	}
+
+	public void setEnd(MonotonicClock clock, long endNanos) {
+		if(this.clock != clock) {
+			this.start = getStart(); //materialize start with the previous anchor
+		}
+		this.clock = clock;
+		this.endNanos = endNanos;
+		this.end = null;
+	}
+
+	/**
+	 * @return stage duration in nanoseconds, without {@link Instant} creation if the period is monotonic
+	 */
+	public long durationNanos() {
+		if(nonNull(clock) && isNull(start) && isNull(end)) {
+			return endNanos - startNanos;
+		}
+		var s = getStart();
+		var e = getEnd();
+		return nonNull(s) && nonNull(e) ? Duration.between(s, e).toNanos() : 0;
+	}
+
+	/**
+	 * move end to stg end (aggregation)
+	 */
+	public void extendEnd(AbstractStage stg) {
+		if(nonNull(stg.clock) && isNull(stg.end)) {
+			setEnd(stg.clock, stg.endNanos);
+		}
+		else {
+			this.end = stg.getEnd();
+		}
+	}
 
 	@Override
 	public String toString() {
@@ -33,4 +106,4 @@ public abstract class AbstractStage implements Metric {
 				.withResult(exception)
 				.format();
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,43 @@
+package org.usf.inspect.core;
+
+import static java.lang.Math.min;
+import static org.usf.inspect.core.Sampler.currentSecond;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sampling rate adjusted every second to keep ~{@code target} sampled sessions per second (all keys).
+ * 
+ * @author u$f
+ *
+ */
+final class AdaptiveSampler implements Sampler {
+
+	private final AtomicLong second = new AtomicLong(-1);
+	private final LongAdder seen = new LongAdder();
+	private final int target;
+	private volatile double rate = 1;
+	
+	AdaptiveSampler(int target) {
+		this.target = target;
+	}
+
+	@Override
+	public boolean sample(String key) {
+		var sec = currentSecond();
+		var s = second.get();
+		if(s != sec && second.compareAndSet(s, sec)) {
+			var n = seen.sumThenReset(); //previous window
+			rate = sec-s == 1 && n > 0 ? min(1., (double) target / n) : 1; //reset after idle window
+		}
+		seen.increment();
+		var r = rate;
+		return r >= 1 || ThreadLocalRandom.current().nextDouble() < r;
+	}
+	
+	double getRate() {
+		return rate;
+	}
+}
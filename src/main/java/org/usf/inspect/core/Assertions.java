@@ -32,6 +32,21 @@ public final class Assertions {
 		throw new IllegalArgumentException(format("%s='%d' must be >= %d", name, v, min));
 	}
 
+	public static long assertGreaterOrEquals(long v, long min, String name) {
+		if(v >= min) {
+			return v;
+		}
+		throw new IllegalArgumentException(format("%s='%d' must be >= %d", name, v, min));
+	}
+
+	public static void assertClassPresent(String className, String name) {
+		try {
+			Class.forName(className, false, Assertions.class.getClassLoader());
+		} catch (ClassNotFoundException e) {
+			throw new IllegalArgumentException(format("%s requires %s on the classpath", name, className));
+		}
+	}
+
 	public static <T extends Comparable<T>> T assertBetween(T o, T min, T max, String name) {
 		if(o.compareTo(min) < 0) {
 			throw new IllegalArgumentException(format("%s='%s' must be >= %s", name, o, min));
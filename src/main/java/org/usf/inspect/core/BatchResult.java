@@ -0,0 +1,127 @@
+package org.usf.inspect.core;
+
+import static java.lang.Math.min;
+import static java.sql.Statement.EXECUTE_FAILED;
+import static java.sql.Statement.SUCCESS_NO_INFO;
+import static java.util.Arrays.copyOf;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Compact batch update counts : run-length encoded values, totals and failed indexes,
+ * a 1M rows batch is usually reduced to a few longs.
+ *
+ * @author u$f
+ *
+ */
+@Getter
+@Setter
+@ToString
+public final class BatchResult {
+
+	static final int MAX_RUNS = 64; //[value, length] pairs
+	static final int MAX_FAILURES = 64; //failed indexes
+
+	private int size; //update counts
+	private long rows; //sum of known update counts
+	private int noInfo; //SUCCESS_NO_INFO
+	private int failed; //EXECUTE_FAILED
+	private int[] failures; //first failed indexes
+	private long[] runs; //[value, length, value, length, ..]
+	private boolean truncated; //runs or failures
+
+	public static BatchResult of(int[] counts) {
+		var res = new BatchResult();
+		if(nonNull(counts)) {
+			for(var i=0; i<counts.length;) {
+				var j = i;
+				while(++j<counts.length && counts[j]==counts[i]);
+				res.append(counts[i], j-i);
+				i = j;
+			}
+		}
+		return res;
+	}
+
+	public static BatchResult of(long[] counts) {
+		var res = new BatchResult();
+		if(nonNull(counts)) {
+			for(var i=0; i<counts.length;) {
+				var j = i;
+				while(++j<counts.length && counts[j]==counts[i]);
+				res.append(counts[i], j-i);
+				i = j;
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * merge next batch results (folded stages)
+	 */
+	public void append(BatchResult res) {
+		if(nonNull(res.failures)) {
+			for(var idx : res.failures) {
+				appendFailures(size + idx, 1);
+			}
+		}
+		if(nonNull(res.runs)) {
+			for(var i=0; i<res.runs.length; i+=2) {
+				appendRun(res.runs[i], (int) res.runs[i+1]);
+			}
+		}
+		size += res.size;
+		rows += res.rows;
+		noInfo += res.noInfo;
+		failed += res.failed;
+		truncated |= res.truncated;
+	}
+
+	void append(long value, int length) {
+		if(value >= 0) {
+			rows += value * length;
+		}
+		else if(value == SUCCESS_NO_INFO) {
+			noInfo += length;
+		}
+		else if(value == EXECUTE_FAILED) {
+			appendFailures(size, length);
+			failed += length;
+		}
+		appendRun(value, length);
+		size += length;
+	}
+
+	void appendRun(long value, int length) {
+		var n = isNull(runs) ? 0 : runs.length;
+		if(n > 0 && runs[n-2] == value) {
+			runs[n-1] += length; //merge with previous
+		}
+		else if(n < 2*MAX_RUNS) {
+			runs = isNull(runs) ? new long[2] : copyOf(runs, n+2);
+			runs[n] = value;
+			runs[n+1] = length;
+		}
+		else {
+			truncated = true; //summary is still exact
+		}
+	}
+
+	void appendFailures(int from, int length) {
+		var n = isNull(failures) ? 0 : failures.length;
+		var m = min(length, MAX_FAILURES - n);
+		if(m > 0) {
+			failures = isNull(failures) ? new int[m] : copyOf(failures, n+m);
+			for(var i=0; i<m; i++) {
+				failures[n+i] = from+i;
+			}
+		}
+		if(m < length) {
+			truncated = true;
+		}
+	}
+}
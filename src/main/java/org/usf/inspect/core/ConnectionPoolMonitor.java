@@ -0,0 +1,50 @@
+package org.usf.inspect.core;
+
+import static java.time.Clock.systemUTC;
+import static org.usf.inspect.core.LogEntry.logEntry;
+import static org.usf.inspect.core.LogEntry.Level.WARN;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Samples registered connection pools on schedule and reports leaked connections.
+ * 
+ * @author u$f
+ *
+ */
+@Slf4j
+public final class ConnectionPoolMonitor implements DispatchHook {
+	
+	private static final List<ConnectionPoolProbe> probes = new CopyOnWriteArrayList<>(); //wrapped data sources
+	
+	private final long leakThreshold;
+
+	ConnectionPoolMonitor(Duration leakThreshold) {
+		this.leakThreshold = leakThreshold.toNanos();
+	}
+	
+	public static void register(ConnectionPoolProbe probe) {
+		probes.add(probe);
+	}
+	
+	@Override
+	public void onSchedule(TraceHub ctx) {
+		var now = systemUTC().instant();
+		for(var p : probes) {
+			try {
+				ctx.emitTrace(p.sample(now));
+				p.detectLeaks(leakThreshold, msg-> {
+					log.warn(msg);
+					ctx.emitTrace(logEntry(WARN, msg));
+				});
+			}
+			catch (Exception e) {
+				ctx.reportError(false, "ConnectionPoolMonitor.onSchedule", e);
+			}
+		}
+	}
+}
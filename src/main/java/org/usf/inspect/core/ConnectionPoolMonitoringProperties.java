@@ -0,0 +1,32 @@
+package org.usf.inspect.core;
+
+import static java.time.Duration.ofDays;
+import static java.time.Duration.ofMinutes;
+import static java.time.Duration.ofSeconds;
+import static org.usf.inspect.core.Assertions.assertBetween;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+@Getter
+@Setter
+@ToString
+public final class ConnectionPoolMonitoringProperties {
+
+	private boolean enabled;
+	private Duration leakThreshold = ofMinutes(1); // connection held longer => leak warning
+	
+	void validate() {
+		if(enabled) {
+			assertBetween(leakThreshold, ofSeconds(1), ofDays(1), "leak-threshold");
+		}
+	}
+}
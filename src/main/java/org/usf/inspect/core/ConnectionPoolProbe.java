@@ -0,0 +1,20 @@
+package org.usf.inspect.core;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Connection pool state, sampled by {@link ConnectionPoolMonitor}.
+ * 
+ * @author u$f
+ *
+ */
+public interface ConnectionPoolProbe {
+	
+	ConnectionPoolUsage sample(Instant instant);
+	
+	/**
+	 * report connections held longer than threshold, once per connection
+	 */
+	void detectLeaks(long thresholdNanos, Consumer<String> report);
+}
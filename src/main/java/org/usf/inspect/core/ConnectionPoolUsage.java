@@ -0,0 +1,42 @@
+package org.usf.inspect.core;
+
+import static java.lang.String.format;
+
+import java.time.Instant;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Pool counters are -1 if unknown (not a supported pool), wait durations in nanoseconds since the previous sample.
+ * 
+ * @author u$f
+ *
+ */
+@Setter
+@Getter
+@RequiredArgsConstructor
+public final class ConnectionPoolUsage implements EventTrace {
+	
+	private final Instant instant;
+	private final String name; //pool name
+	private final int active;
+	private final int idle;
+	private final int pending; //threads awaiting connection
+	private final int total;
+	private final int acquired;
+	private final long totalWait;
+	private final long maxWait;
+	private String instanceId; //server usage 
+	
+	@Override
+	public String toString() {
+		return new EventTraceFormatter()
+		.withAction("POOL")
+		.withInstant(instant)
+		.withMessageAsTopic(format("%s active: %d | idle: %d | pending: %d | total: %d", 
+				name, active, idle, pending, total))
+		.format();
+	}
+}
@@ -0,0 +1,40 @@
+package org.usf.inspect.core;
+
+import static org.usf.inspect.core.Assertions.assertPositive;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+@Getter
+@Setter
+@ToString
+public final class DatabaseMonitoringProperties {
+
+	private int commandCacheSize = 1024; // parsed SQL commands (slots), 0: disabled
+	private int commandCacheMaxLength = 4096; // longer (dynamic) SQL are parsed but not cached
+	private int batchChunkSize = 0; // addBatch calls per BATCH stage, 0: one stage per batch
+	private boolean pooledStages = false; // simple stages recorded in primitive arenas, see StageArena
+	private ConnectionPoolMonitoringProperties pool = new ConnectionPoolMonitoringProperties();
+	private QueryDetectorProperties queryDetector = new QueryDetectorProperties();
+	private ResultSetMonitoringProperties resultSet = new ResultSetMonitoringProperties();
+	private boolean sqlFingerprint = false; // normalized SQL & fingerprint on EXECUTE stages
+	private int sqlTextMaxLength = 512; // normalized SQL text, 0: fingerprint only
+	private int stageAggregationThreshold = 0; // per request stages, above: repeated STATEMENT|EXECUTE|FETCH are folded, 0: disabled
+	
+	void validate() {
+		assertPositive(commandCacheSize, "command-cache-size");
+		assertPositive(commandCacheMaxLength, "command-cache-max-length");
+		assertPositive(batchChunkSize, "batch-chunk-size");
+		assertPositive(sqlTextMaxLength, "sql-text-max-length");
+		assertPositive(stageAggregationThreshold, "stage-aggregation-threshold");
+		pool.validate();
+		queryDetector.validate();
+		resultSet.validate();
+	}
+}
@@ -22,6 +22,9 @@ public final class DatabaseRequestSignal extends AbstractRequestSignal {
 	private String driverVersion;
 	private String productName;
 	private String productVersion;
+	//v1.2
+	private long poolWait; //connection acquisition in nanoseconds, pool monitoring only
+	private boolean newConnection; //physical connection created while acquiring
 	
 	public DatabaseRequestSignal(String id, String sessionId, Instant start, String threadName) {
 		super(id, sessionId, start, threadName);
@@ -18,11 +18,16 @@ public final class DatabaseRequestStage extends AbstractStage {
 
 	private long[] count;
 	private String[] args; // only for BATCH|EXECUTE|FETCH
+	private StageAggregate aggregate; // v1.2 folded stages, count: total rows
+	private String fingerprint; // v1.2 normalized SQL hash (EXECUTE)
+	private String query; // v1.2 normalized SQL, literals removed (EXECUTE)
+	private BatchResult batch; // v1.2 batch update counts (EXECUTE)
+	private FetchStats fetch; // v1.2 result set consumption (FETCH)
 		
 	@Override
 	public String toString() {
 		return new EventTraceFormatter()
-		.withAction(getName())
+		.withAction(nonNull(aggregate) ? getName() + "x" + aggregate.getCount() : getName())
 		.withArgsAsTopic(getCommand(), args)
 		.withPeriod(getStart(), getEnd())
 		.withResult(nonNull(count) ? Arrays.toString(count) : getException())
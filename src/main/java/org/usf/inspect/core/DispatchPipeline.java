@@ -0,0 +1,174 @@
+package org.usf.inspect.core;
+
+import static java.lang.Math.floorMod;
+import static java.lang.Math.min;
+import static java.lang.Thread.currentThread;
+import static java.util.Collections.emptyList;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Splits a snapshot into lanes (traces of the same session share the same lane) and each lane into size-bounded batches.
+ * Lanes are dispatched in parallel on a dedicated I/O executor, batches of a lane are dispatched in order : 
+ * the first failed batch stops its lane, so the collector never receives an update before its signal.
+ * 
+ * @author u$f
+ *
+ */
+@Slf4j
+final class DispatchPipeline {
+
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger(0);
+
+	private final TraceExporter agent;
+	private final int batchSize; //0: no split
+	private final int lanes;
+	private final ExecutorService executor; //null if single lane
+
+	DispatchPipeline(TraceExporter agent, int batchSize, int maxInFlight) {
+		this.agent = agent;
+		this.batchSize = batchSize;
+		this.lanes = maxInFlight;
+		this.executor = maxInFlight > 1 ? newFixedThreadPool(maxInFlight, DispatchPipeline::daemonThread) : null;
+	}
+
+	/**
+	 * @return traces that could not be dispatched (to be requeued)
+	 */
+	public List<EventTrace> dispatch(boolean complete, List<EventTrace> traces) {
+		if(complete || traces.isEmpty()) { //last dispatch : single request
+			return agent.dispatch(complete, traces);
+		}
+		var arr = partition(traces);
+		if(arr.size() == 1) {
+			return dispatchLane(arr.get(0)); //caller thread
+		}
+		var futures = new ArrayList<Future<List<EventTrace>>>(arr.size());
+		for(var lane : arr) {
+			futures.add(executor.submit(()-> dispatchLane(lane)));
+		}
+		var failed = new ArrayList<EventTrace>();
+		for(var i=0; i<futures.size(); i++) {
+			try {
+				failed.addAll(futures.get(i).get());
+			}
+			catch (InterruptedException e) {
+				log.warn("interrupted while waiting for dispatch");
+				failed.addAll(arr.get(i)); //may be dispatched twice
+				currentThread().interrupt();
+			}
+			catch (ExecutionException e) { //should never happen
+				log.warn("failed to dispatch {} traces", arr.get(i).size(), e.getCause());
+				failed.addAll(arr.get(i));
+			}
+		}
+		return failed;
+	}
+
+	/**
+	 * Single lane on the caller thread, see {@link SpillLog#replay}
+	 * 
+	 * @return unsent suffix of traces
+	 */
+	public List<EventTrace> dispatchInOrder(List<EventTrace> traces) {
+		return dispatchLane(traces);
+	}
+
+	List<EventTrace> dispatchLane(List<EventTrace> lane) {
+		var size = batchSize > 0 ? batchSize : lane.size();
+		for(var i=0; i<lane.size(); i+=size) {
+			var batch = lane.subList(i, min(i+size, lane.size()));
+			List<EventTrace> rest;
+			try {
+				rest = agent.dispatch(false, batch);
+			}
+			catch (Exception e) { //retry on next dispatch
+				log.warn("failed to dispatch batch of {} traces, cause {} : {}", batch.size(), e.getClass().getSimpleName(), e.getMessage());
+				rest = batch;
+			}
+			if(!rest.isEmpty()) { //stop lane, keep order
+				var failed = new ArrayList<EventTrace>(lane.size() - i);
+				failed.addAll(rest);
+				failed.addAll(lane.subList(i+batch.size(), lane.size()));
+				return failed;
+			}
+		}
+		return emptyList();
+	}
+
+	List<List<EventTrace>> partition(List<EventTrace> traces) {
+		if(lanes == 1) {
+			return List.of(traces);
+		}
+		var req = new HashMap<String, String>(); //request => session
+		for(var t : traces) {
+			if(t instanceof AbstractRequestSignal s && nonNull(s.getSessionId())) {
+				req.put(s.getId(), s.getSessionId());
+			}
+		}
+		var arr = new ArrayList<List<EventTrace>>(lanes);
+		for(var i=0; i<lanes; i++) {
+			arr.add(new ArrayList<>());
+		}
+		var idx = 0;
+		for(var t : traces) {
+			var key = sessionKey(t, req);
+			arr.get(isNull(key) ? idx++ % lanes : floorMod(key.hashCode(), lanes)).add(t);
+		}
+		arr.removeIf(List::isEmpty);
+		return arr;
+	}
+
+	public void shutdown() {
+		if(nonNull(executor)) {
+			executor.shutdown();
+		}
+	}
+
+	static String sessionKey(EventTrace trace, Map<String, String> requests) {
+		if(trace instanceof AbstractSessionSignal s) {
+			return s.getId();
+		}
+		if(trace instanceof AbstractSessionUpdate s) {
+			return s.getId();
+		}
+		if(trace instanceof SessionMaskUpdate s) {
+			return s.getId();
+		}
+		if(trace instanceof AbstractRequestSignal s) {
+			return nonNull(s.getSessionId()) ? s.getSessionId() : s.getId();
+		}
+		if(trace instanceof AbstractRequestUpdate s) {
+			return requests.getOrDefault(s.getId(), s.getId()); //signal already dispatched otherwise
+		}
+		if(trace instanceof AbstractStage s && nonNull(s.getRequestId())) {
+			return requests.getOrDefault(s.getRequestId(), s.getRequestId());
+		}
+		if(trace instanceof StageArena a) {
+			return requests.getOrDefault(a.getRequestId(), a.getRequestId());
+		}
+		if(trace instanceof LogEntry l) {
+			return l.getSessionId();
+		}
+		return null; //no order
+	}
+
+	static Thread daemonThread(Runnable r) {
+		var thread = new Thread(r, "inspect-dispatcher-" + THREAD_COUNTER.incrementAndGet());
+		thread.setDaemon(true);
+		thread.setUncaughtExceptionHandler((t,e)-> log.error("uncaught exception on thread {}", t.getName(), e));
+		return thread;
+	}
+}
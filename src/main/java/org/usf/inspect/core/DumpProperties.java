@@ -3,10 +3,17 @@ package org.usf.inspect.core;
 import static java.lang.String.join;
 import static java.lang.System.getProperty;
 import static java.nio.file.Files.createDirectories;
+import static java.time.Duration.ofDays;
+import static java.time.Duration.ofMinutes;
+import static java.time.Duration.ofSeconds;
 import static java.util.Objects.nonNull;
+import static org.usf.inspect.core.Assertions.assertBetween;
+import static org.usf.inspect.core.Assertions.assertGreaterOrEquals;
+import static org.usf.inspect.core.Assertions.assertPositive;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.time.Duration;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -24,11 +31,23 @@ public final class DumpProperties {
 
 	private boolean enabled;
 	private Path location = Path.of(getProperty("java.io.tmpdir")); // dump folder
+	//v1.2
+	private long maxFileSize = 64 * 1024 * 1024; // bytes, segment rotation
+	private Duration maxFileAge = ofMinutes(10); // segment rotation
+	private int maxFiles = 20; // rolled segments kept, oldest deleted first, 0: unlimited
+	private boolean compress = false; // gzip segments
+	private SpillProperties spill = new SpillProperties(); //v1.2 dispatch failure => disk, replayed on reconnect
 
 	void validate() {
-		if(enabled) {
+		if(enabled || spill.isEnabled()) { //shared base directory
 			location = createDirs(location, "inspect");
 		}
+		if(enabled) {
+			assertGreaterOrEquals(maxFileSize, 1024, "max-file-size");
+			assertPositive(maxFiles, "max-files");
+			assertBetween(maxFileAge, ofSeconds(10), ofDays(1), "max-file-age");
+		}
+		spill.validate();
 	}
 
 	static Path createDirs(Path location, String... dirs) {
@@ -1,50 +1,236 @@
 package org.usf.inspect.core;
 
-import static java.util.Collections.synchronizedList;
+import static java.lang.Math.max;
+import static java.lang.System.nanoTime;
+import static java.time.Duration.ZERO;
+import static java.util.Arrays.copyOf;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * 
+ * Hooks are held in an immutable array, swapped on register/remove : triggers iterate a snapshot without lock.
+ * With a timeout, hooks run on a separate executor and the dispatch cycle waits at most the timeout.
+ * Each hook runs its triggers in order : dispatched traces are copied and queued (bounded), 
+ * a trigger that cannot be queued before the cycle deadline is dropped (hung hook),
+ * schedule and instance triggers are skipped while the hook is still running.
+ *
  * @author u$f
  *
  */
 @Slf4j
 public final class EventTraceBus {
 
-	private final List<DispatchHook> dispatchHooks = synchronizedList(new ArrayList<>());
-	
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger(0);
+	static final int MAX_PENDING = 16; //queued triggers per hook, then the dispatch cycle waits until its deadline
+
+	private final AtomicReference<HookHandle[]> dispatchHooks = new AtomicReference<>(new HookHandle[0]);
+	private final long timeout; //nanos, 0: inline
+	private final ExecutorService executor; //null if inline
+
+	public EventTraceBus() {
+		this(ZERO);
+	}
+
+	public EventTraceBus(Duration timeout) {
+		this.timeout = timeout.toNanos();
+		this.executor = timeout.isZero() ? null : newCachedThreadPool(EventTraceBus::daemonThread);
+	}
+
 	public void registerHook(DispatchHook hook) {
-		dispatchHooks.add(hook);
+		var h = new HookHandle(hook);
+		dispatchHooks.updateAndGet(arr-> {
+			var a = copyOf(arr, arr.length+1);
+			a[arr.length] = h;
+			return a;
+		});
 	}
-	
+
 	public void removeHook(DispatchHook hook) {
-		dispatchHooks.remove(hook);
+		dispatchHooks.updateAndGet(arr-> Stream.of(arr).filter(h-> h.hook != hook).toArray(HookHandle[]::new));
 	}
+
 	public void triggerInstanceEmit(InstanceEnvironment env){
-		triggerHooks(h-> h.onInstanceEmit(env));
+		triggerHooks(h-> h.onInstanceEmit(env), true);
 	}
-	
+
 	public void triggerSchedule(TraceHub ctx){
-		triggerHooks(h-> h.onSchedule(ctx));
+		triggerHooks(h-> h.onSchedule(ctx), true);
 	}
-	
+
 	public void triggerTraceDispatch(TraceHub ctx, List<EventTrace> traces){
-		triggerHooks(h-> h.onDispatch(ctx, traces));
+		if(isNull(executor) || executor.isShutdown()) {
+			triggerHooks(h-> h.onDispatch(ctx, traces), false);
+		}
+		else {
+			var copy = List.copyOf(traces); //immutable, hooks may outlive the dispatch cycle
+			triggerHooks(h-> h.onDispatch(ctx, copy), false);
+		}
+	}
+
+	void triggerHooks(Consumer<? super DispatchHook> post, boolean skippable){
+		var arr = dispatchHooks.get(); //snapshot
+		if(isNull(executor) || executor.isShutdown()) {
+			for(var h : arr) {
+				h.run(post);
+			}
+			return;
+		}
+		var deadline = nanoTime() + timeout; //whole cycle
+		var futures = new Future<?>[arr.length];
+		for(var i=0; i<arr.length; i++) {
+			futures[i] = submit(arr[i], post, skippable, deadline);
+		}
+		for(var i=0; i<arr.length; i++) {
+			if(nonNull(futures[i])) {
+				try {
+					futures[i].get(max(0, deadline - nanoTime()), NANOSECONDS);
+				}
+				catch (TimeoutException e) { //keeps running, next triggers are queued
+					arr[i].timeouts.incrementAndGet();
+					log.warn("hook '{}' exceeded {}ms, dispatch cycle continues", arr[i].name(), timeout / 1_000_000);
+				}
+				catch (ExecutionException e) {
+					//already caught by hook handle
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	Future<?> submit(HookHandle h, Consumer<? super DispatchHook> post, boolean skippable, long deadline) {
+		if(skippable && h.busy.get()) {
+			h.skipped.incrementAndGet();
+			log.warn("hook '{}' is still running, skipped", h.name());
+			return null;
+		}
+		try {
+			if(!h.permits.tryAcquire(max(0, deadline - nanoTime()), NANOSECONDS)) { //backpressure, bounded by the cycle deadline
+				h.dropped.incrementAndGet();
+				log.warn("hook '{}' has {} pending triggers, dropped", h.name(), MAX_PENDING);
+				return null;
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+		h.pending.add(post);
+		if(h.busy.compareAndSet(false, true)) {
+			try {
+				h.drain = executor.submit(h::drain);
+			}
+			catch (RejectedExecutionException e) { //shutting down
+				h.drain();
+			}
+		}
+		return h.drain; //running, may also run next triggers
+	}
+
+	HookHandle[] hooks() {
+		return dispatchHooks.get();
 	}
-	
-	void triggerHooks(Consumer<? super DispatchHook> post){
-		dispatchHooks.forEach(h -> {
+
+	void shutdown() { //wait for queued triggers while hooks make progress, next triggers are inline
+		if(nonNull(executor)) {
+			executor.shutdown();
 			try {
-				post.accept(h);
+				var calls = -1L;
+				while(!executor.awaitTermination(timeout, NANOSECONDS)) {
+					var n = Stream.of(dispatchHooks.get()).mapToLong(h-> h.calls.get()).sum();
+					if(n == calls) {
+						break; //stuck hook
+					}
+					calls = n;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	static Thread daemonThread(Runnable r) {
+		var thread = new Thread(r, "inspect-hook-" + THREAD_COUNTER.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	}
+
+	static final class HookHandle {
+
+		private final DispatchHook hook;
+		private final AtomicBoolean busy = new AtomicBoolean();
+		private final Queue<Consumer<? super DispatchHook>> pending = new ConcurrentLinkedQueue<>();
+		private final Semaphore permits = new Semaphore(MAX_PENDING);
+		private volatile Future<?> drain;
+		final AtomicLong calls = new AtomicLong();
+		final AtomicLong totalTime = new AtomicLong(); //nanos
+		final AtomicLong maxTime = new AtomicLong(); //nanos
+		final AtomicLong failures = new AtomicLong();
+		final AtomicLong timeouts = new AtomicLong();
+		final AtomicLong skipped = new AtomicLong();
+		final AtomicLong dropped = new AtomicLong(); //queue full
+
+		HookHandle(DispatchHook hook) {
+			this.hook = hook;
+		}
+
+		void drain() { //serial, in trigger order
+			do {
+				Consumer<? super DispatchHook> post;
+				while(nonNull(post = pending.poll())) {
+					try {
+						run(post);
+					}
+					finally {
+						permits.release();
+					}
+				}
+				busy.set(false);
+			} while(!pending.isEmpty() && busy.compareAndSet(false, true));
+		}
+
+		void run(Consumer<? super DispatchHook> post) {
+			var start = nanoTime();
+			try {
+				post.accept(hook);
 			}
 			catch (Exception e) { //catch exception => next hook
-				log.warn("failed to execute hook '{}'", h.getClass().getSimpleName());
+				failures.incrementAndGet();
+				log.warn("failed to execute hook '{}'", name());
 			}
-		});
+			finally {
+				var d = nanoTime() - start;
+				calls.incrementAndGet();
+				totalTime.addAndGet(d);
+				maxTime.accumulateAndGet(d, Math::max);
+			}
+		}
+
+		String name() {
+			return hook.getClass().getSimpleName();
+		}
 	}
 }
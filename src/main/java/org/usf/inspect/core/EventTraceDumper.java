@@ -1,23 +1,36 @@
 package org.usf.inspect.core;
 
-import static java.lang.Integer.parseInt;
+import static com.fasterxml.jackson.databind.SerializationFeature.FLUSH_AFTER_WRITE_VALUE;
+import static java.lang.Math.min;
 import static java.lang.System.currentTimeMillis;
-import static java.nio.file.Files.delete;
-import static java.nio.file.Files.move;
+import static java.nio.ByteBuffer.allocateDirect;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.list;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.zip.GZIPOutputStream;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
+ * Rolling dump : dispatched traces are appended as newline-delimited JSON (optionally gzip) 
+ * to size/time-rotated segments, written through a buffered {@link FileChannel}.
+ * Segments are an archive, they are not replayed automatically (failed batches are requeued or spilled, see {@link SpillLog}),
+ * a segment can be replayed explicitly with {@link TraceExporter#dispatch(java.io.File)}.
  * 
  * @author u$f
  *
@@ -25,104 +38,159 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public final class EventTraceDumper implements DispatchHook {
 	
+	static final String PREFIX = "dump_";
+	static final String EXT = ".ndjson";
+	static final String GZIP_EXT = EXT + ".gz";
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
 	private final Path baseDir;
 	private final ObjectWriter writer;
+	private final DumpProperties properties;
+	private Segment segment; //lazy
 	
-	public EventTraceDumper(Path baseDir, ObjectMapper mapper) {
+	public EventTraceDumper(Path baseDir, ObjectMapper mapper, DumpProperties properties) {
 		this.baseDir = baseDir;
-		this.writer = mapper.writerFor(new TypeReference<Collection<EventTrace>>() {});
+		this.writer = mapper.writerFor(EventTrace.class) //keep @type
+				.without(FLUSH_AFTER_WRITE_VALUE) //flush once per batch
+				.withRootValueSeparator("\n");
+		this.properties = properties;
 	}
 
-//	@Override disable for now
-	public void postDispatch(TraceHub ctx, ProcessingQueue<EventTrace> manager) {
-		manager.pollAll(trc->{
-			ctx.emitTask(dispatchFileTask(ctx, writeTraces(trc)));
-			return Collections.emptyList();
-		});
+	@Override
+	public synchronized void onDispatch(TraceHub ctx, Collection<EventTrace> traces) {
+		if(!traces.isEmpty()) {
+			try {
+				if(isNull(segment)) {
+					segment = new Segment(baseDir.resolve(PREFIX + currentTimeMillis() + (properties.isCompress() ? GZIP_EXT : EXT)));
+				}
+				for(var t : traces) {
+					segment.seq.write(t);
+				}
+				segment.seq.flush(); //one write per batch
+				log.trace("{} traces were dumped in '{}' file", traces.size(), segment.path.getFileName());
+				if(segment.out.size() >= properties.getMaxFileSize()) {
+					rotate();
+				}
+			}
+			catch (IOException e) {
+				ctx.reportError(false, "EventTraceDumper.onDispatch", e);
+				closeSegment(); //next batch => new segment
+			}
+		}
 	}
 	
-	File writeTraces(Collection<EventTrace> traces) {
-		var fn = "dump_" + currentTimeMillis() + ".json";
-		var f = baseDir.resolve(fn).toFile(); //can write !?
-		try {
-			writer.writeValue(f, traces);
-			log.debug("{} traces was dumped in '{}' file", traces.size(), fn);
-		}
-		catch (IOException e) {
-			throw new DispatchException("creating traces dump file '" + fn + "' error", e);
+	@Override
+	public synchronized void onSchedule(TraceHub ctx) { //time based rotation
+		if(nonNull(segment) && currentTimeMillis() - segment.start >= properties.getMaxFileAge().toMillis()) {
+			rotate();
 		}
-		return f;
 	}
 	
-	DispatchTask dispatchFileTask(TraceHub ctx, File f) {
-		var fileRef = new File[] {f};
-		return agn->{
-			if(fileRef[0].exists()) {
-				var rt = getFileDispatchAttempts(fileRef[0].getName());
-				try {
-					agn.dispatch(fileRef[0]);
-					deleteFile(ctx, fileRef[0]); //ignore deleteFile exception
-					if(rt > 5) { //more than one attempt
-						log.info("successfully dispatched '{}' file after {} attempts", fileRef[0].getName(), rt);
-					}
-				}
-				catch (Exception e) {
-					fileRef[0] = setFileDispatchAttempts(fileRef[0], rt);
-					throw e;
+	void rotate() {
+		closeSegment();
+		if(properties.getMaxFiles() > 0) {
+			try(var s = list(baseDir)) {
+				var arr = s.filter(p-> isSegment(p.getFileName().toString())).sorted().toList(); //timestamp order
+				for(var i=0; i<arr.size()-properties.getMaxFiles(); i++) {
+					deleteIfExists(arr.get(i));
+					deleteIfExists(RestTraceExporter.FileCheckpoint.path(arr.get(i))); //upload progress
 				}
 			}
-			else { //do not throw exception => end task
-				ctx.reportMessage(false, "EventTraceDumper.emitDispatchFileTask", 
-						"traces dump file '" + f.getName() + "' is not found");
+			catch (IOException e) {
+				log.warn("cannot delete old dump files in {}", baseDir, e);
 			}
-		};
+		}
 	}
 	
-	void deleteFile(TraceHub ctx, File file) {
-		boolean done = false;
-		try {
-			delete(file.toPath());
-			done = true; //file deleted
-		}
-		catch (Exception e) {
-			log.warn("cannot delete dump file {}", file, e);
-		}
-		if(!done) {
+	static boolean isSegment(String fn) { //exclude checkpoints & temporary files
+		return fn.startsWith(PREFIX) && (fn.endsWith(EXT) || fn.endsWith(GZIP_EXT));
+	}
+	
+	void closeSegment() {
+		if(nonNull(segment)) {
 			try {
-				done = file.renameTo(file.toPath().resolveSibling(file.getName() + ".back").toFile());
+				segment.seq.close();
+				segment.gen.close(); //finish gzip & close channel
 			}
-			catch (Exception e) {
-				log.warn("cannot rename dump file {}", file, e);
+			catch (IOException e) {
+				log.warn("cannot close dump file {}", segment.path, e);
 			}
+			segment = null;
 		}
-		if(!done) {
-			ctx.reportMessage(false, "EventTraceDumper.deleteFile", 
-					"cannot delete or rename file '" + file.getName() + "'");
+	}
+	
+	final class Segment {
+		
+		private final Path path;
+		private final long start = currentTimeMillis();
+		private final ChannelOutputStream out;
+		private final JsonGenerator gen;
+		private final SequenceWriter seq;
+		
+		Segment(Path path) throws IOException {
+			this.path = path;
+			this.out = new ChannelOutputStream(FileChannel.open(path, CREATE_NEW, WRITE));
+			OutputStream os = properties.isCompress() ? new GZIPOutputStream(out, BUFFER_SIZE, true) : out; //sync flush
+			this.gen = writer.getFactory().createGenerator(os);
+			this.seq = writer.writeValues(gen);
 		}
 	}
 	
-	static File setFileDispatchAttempts(File file, int attempts) {
-		try {
-			var fn = file.getName();
-			var idx = fn.indexOf('~');
-			if(idx > -1) {
-				fn = fn.substring(0, idx);
+	static final class ChannelOutputStream extends OutputStream {
+		
+		private final FileChannel channel;
+		private final ByteBuffer buffer = allocateDirect(BUFFER_SIZE);
+		
+		ChannelOutputStream(FileChannel channel) {
+			this.channel = channel;
+		}
+		
+		@Override
+		public void write(int b) throws IOException {
+			if(!buffer.hasRemaining()) {
+				drain();
 			}
-			var path = file.toPath();
-			return move(path, path.resolveSibling(fn+"~"+attempts)).toFile();
+			buffer.put((byte) b);
 		}
-		catch (Exception e) {//cannot move file
-			return file;
+		
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			while(len > 0) {
+				if(!buffer.hasRemaining()) {
+					drain();
+				}
+				var n = min(len, buffer.remaining());
+				buffer.put(b, off, n);
+				off += n;
+				len -= n;
+			}
 		}
-	}
-	
-	static int getFileDispatchAttempts(String fn) {
-		try {
-			var idx = fn.indexOf('~');
-			return idx > 0 ? parseInt(fn.substring(++idx)) : 0;
+		
+		@Override
+		public void flush() throws IOException {
+			drain();
+		}
+		
+		void drain() throws IOException {
+			buffer.flip();
+			while(buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+		
+		long size() throws IOException { //written bytes
+			return channel.position() + buffer.position();
 		}
-		catch (Exception e) { //ignore it
-			return 0;
+		
+		@Override
+		public void close() throws IOException {
+			try {
+				drain();
+			}
+			finally {
+				channel.close();
+			}
 		}
 	}
 }
@@ -6,9 +6,16 @@ import static org.usf.inspect.core.SessionContextManager.aroundCallable;
 import static org.usf.inspect.core.SessionContextManager.aroundRunnable;
 import static org.usf.inspect.core.TraceDispatcherHub.hub;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import lombok.AccessLevel;
 import lombok.NonNull;
@@ -47,6 +54,38 @@ public class ExecutorServiceWrapper implements ExecutorService {
 	public void execute(Runnable task) {
 		es.execute(aroundRunnable(task));
 	}
+	
+	@Override
+	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+		return es.invokeAll(aroundCallables(tasks));
+	}
+	
+	@Override
+	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit) throws InterruptedException {
+		return es.invokeAll(aroundCallables(tasks), timeout, unit);
+	}
+	
+	@Override
+	public <T> T invokeAny(Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+		return es.invokeAny(aroundCallables(tasks));
+	}
+	
+	@Override
+	public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		return es.invokeAny(aroundCallables(tasks), timeout, unit);
+	}
+	
+	static <T> List<Callable<T>> aroundCallables(Collection<? extends Callable<T>> tasks) {
+		var arr = new ArrayList<Callable<T>>(tasks.size());
+		for(var t : tasks) {
+			arr.add(aroundCallable(t));
+		}
+		return arr;
+	}
+	
+	public static ExecutorService newVirtualThreadPerTaskExecutor() { //v1.2 virtual thread fan-out, see VirtualThreadMonitor
+		return wrap(Executors.newVirtualThreadPerTaskExecutor(), "virtualThreadPerTaskExecutor");
+	}
 
 	public static ExecutorService wrap(ExecutorService es) {
 		return wrap(es, null);
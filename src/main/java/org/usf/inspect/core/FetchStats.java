@@ -0,0 +1,47 @@
+package org.usf.inspect.core;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Result set consumption, durations in nanoseconds : driver time is spent in next(), 
+ * think time between next() calls (consumer side).
+ * 
+ * @author u$f
+ *
+ */
+@Getter
+@Setter
+@ToString
+public final class FetchStats {
+
+	private long firstRowTime; //result set creation => first next(), 0 if never called
+	private long driverTime;
+	private long thinkTime;
+	private int roundTrips; //stalled next() calls
+	private long bytes; //approximate, getBytes & getString
+	
+	public FetchStats() { }
+	
+	public FetchStats(long firstRowTime, long driverTime, long thinkTime, int roundTrips, long bytes) {
+		this.firstRowTime = firstRowTime;
+		this.driverTime = driverTime;
+		this.thinkTime = thinkTime;
+		this.roundTrips = roundTrips;
+		this.bytes = bytes;
+	}
+	
+	/**
+	 * merge next result set stats (folded stages)
+	 */
+	public void append(FetchStats stats) {
+		if(stats.firstRowTime > 0) { //no row or previous version sentinel (-1)
+			firstRowTime += stats.firstRowTime;
+		}
+		driverTime += stats.driverTime;
+		thinkTime += stats.thinkTime;
+		roundTrips += stats.roundTrips;
+		bytes += stats.bytes;
+	}
+}
@@ -28,7 +28,7 @@ public final class Helper {
 	
 	public static String threadName() {
 		var t = currentThread();
-		return t.isVirtual() ?  ""+t.threadId() : t.getName();
+		return t.isVirtual() && t.getName().isEmpty() ? "virtual-" + t.threadId() : t.getName(); //unnamed virtual thread
 	}
 	
 	public static String extractAuthScheme(String authHeader) { //nullable
@@ -1,5 +1,6 @@
 package org.usf.inspect.core;
 
+import static java.lang.Math.multiplyExact;
 import static java.lang.String.format;
 import static java.lang.System.getProperty;
 import static java.net.InetAddress.getLocalHost;
@@ -13,12 +14,14 @@ import static org.usf.inspect.core.Helper.formatLocation;
 import static org.usf.inspect.core.InstanceType.SERVER;
 import static org.usf.inspect.core.Monitor.traceAroundMethod;
 import static org.usf.inspect.core.SessionContextManager.createStartupSession;
+import static org.usf.inspect.core.SessionContextManager.sampleSession;
 import static org.usf.inspect.core.SessionContextManager.nextId;
 import static org.usf.inspect.core.TraceDispatcherHub.hub;
 import static org.usf.inspect.core.TraceDispatcherHub.initializeTraceHub;
 import static org.usf.inspect.http.HttpRoutePredicate.compile;
 import static org.usf.inspect.jdbc.DataSourceWrapper.wrap;
 
+import java.io.IOException;
 import java.net.UnknownHostException;
 import java.time.Instant;
 import java.util.Optional;
@@ -43,6 +46,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.Primary;
 import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -53,9 +57,12 @@ import org.usf.inspect.http.HttpRoutePredicate;
 import org.usf.inspect.http.HttpSessionFilter;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.jsontype.NamedType;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import jakarta.servlet.Filter;
@@ -147,6 +154,9 @@ public class InspectConfiguration implements WebMvcConfigurer {
     			if(bean instanceof ThreadPoolTaskExecutor exc) { //context injection for : @Async, Callable, DeferredResult, CompletableFuture 
     				exc.setTaskDecorator(SessionContextManager::aroundRunnable);
     			}
+    			else if(bean instanceof SimpleAsyncTaskExecutor exc) { //spring.threads.virtual.enabled=true
+    				exc.setTaskDecorator(SessionContextManager::aroundRunnable);
+    			}
     			//see also SimpleAsyncTaskExecutor & AsyncSupportConfigurer(CallableProcessingInterceptor, DeferredResultProcessingInterceptor)
 	            return bean instanceof DataSource ds ? wrap(ds, beanName) :  bean;
     		}
@@ -157,7 +167,9 @@ public class InspectConfiguration implements WebMvcConfigurer {
     ApplicationListener<SpringApplicationEvent> appEventListener(Instant start, ApplicationPropertiesProvider provider){
     	var instance = newInstanceEnvironment(start, hub().getConfiguration(), provider);
 		hub().dispatch(instance);
-		ExecutionListener<String> handler = traceAroundMethod(createStartupSession(start, instance.getId()),
+		var session = createStartupSession(start, instance.getId());
+		session.setSampled(sampleSession("startup", null));
+		ExecutionListener<String> handler = traceAroundMethod(session,
 				ses-> ses.setName("main"), 
 				MainSessionUpdate::setLocation);
 		return e-> {
@@ -232,6 +244,8 @@ public class InspectConfiguration implements WebMvcConfigurer {
 				new NamedType(MachineResourceUsage.class, 		"01"),
 				new NamedType(RestRemoteServerProperties.class, "02"),
 				new NamedType(SessionMaskUpdate.class,			"03"),  
+				new NamedType(ConnectionPoolUsage.class,		"04"),
+				new NamedType(QueryPatternReport.class,		"05"),
 				new NamedType(MainSessionSignal.class,  				"10"), 
 				new NamedType(MainSessionUpdate.class,  		"11"), 
 				new NamedType(HttpSessionSignal.class,  				"20"), 
@@ -253,7 +267,17 @@ public class InspectConfiguration implements WebMvcConfigurer {
 				new NamedType(DatabaseRequestStage.class,		"230"), 
 				new NamedType(FtpRequestStage.class,  			"240"),
 				new NamedType(MailRequestStage.class,  			"250"), 
-				new NamedType(DirectoryRequestStage.class,		"260"));
+				new NamedType(DirectoryRequestStage.class,		"260"),
+				new NamedType(VirtualThreadStage.class,			"270"));
+	}
+
+	public static SimpleModule binaryModule() { //binary payload only
+		return new SimpleModule("inspect-binary-module").addSerializer(Instant.class, new StdSerializer<>(Instant.class) {
+			@Override
+			public void serialize(Instant value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+				gen.writeNumber(multiplyExact(value.getEpochSecond(), 1_000_000_000L) + value.getNano()); //epoch-nanos
+			}
+		});
 	}
 
 	static InstanceEnvironment newInstanceEnvironment(Instant start, InspectCollectorConfiguration conf, ApplicationPropertiesProvider provider) {
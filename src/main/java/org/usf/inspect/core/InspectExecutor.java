@@ -1,7 +1,8 @@
 package org.usf.inspect.core;
 
-import static java.time.Clock.systemUTC;
+import static java.lang.System.nanoTime;
 import static java.util.Objects.nonNull;
+import static org.usf.inspect.core.MonotonicClock.currentClock;
 import static org.usf.inspect.core.TraceDispatcherHub.hub;
 
 import java.time.Instant;
@@ -26,7 +27,7 @@ public final class InspectExecutor {
 	public static <T, E extends Throwable> T call(SafeCallable<T,E> fn, ExecutionListener<? super T> handler) throws E {
 		T o = null;
 		Throwable t = null;
-		var s = systemUTC().instant();
+		var s = nanoTime(); //monotonic, no allocation
 		try {
 			return (o = fn.call());
 		}
@@ -36,7 +37,7 @@ public final class InspectExecutor {
 		}
 		finally {
 			if(nonNull(handler)) {
-				handler.safeHandle(s, systemUTC().instant(), o, t);
+				handler.safeHandle(currentClock(), s, nanoTime(), o, t);
 			}
 		}
 	}
@@ -45,6 +46,13 @@ public final class InspectExecutor {
 	public static interface ExecutionListener<T> {
 		
 		void handle(Instant start, Instant end, T obj, Throwable thrw) throws Exception;
+		
+		/**
+		 * start & end are {@link System#nanoTime()} values, override to defer {@link Instant} creation
+		 */
+		default void handle(MonotonicClock clock, long start, long end, T obj, Throwable thrw) throws Exception {
+			handle(clock.instant(start), clock.instant(end), obj, thrw);
+		}
 
 		default void safeHandle(Instant start, Instant end, T res, Throwable thrw) {
 			try {
@@ -55,6 +63,15 @@ public final class InspectExecutor {
 			}
 		}
 		
+		default void safeHandle(MonotonicClock clock, long start, long end, T res, Throwable thrw) {
+			try {
+				handle(clock, start, end, res, thrw);
+			}
+			catch (Throwable ex) {// do not throw exception
+				hub().reportError(true, "ExecutionMonitor.safeHandle", ex);
+			}
+		}
+		
 		default ExecutionListener<T> thenHandle(ExecutionListener<? super T> next) {
 			return (s,e,o,t)-> {
 				handle(s,e,o,t);
@@ -12,6 +12,8 @@ import static org.usf.inspect.core.Monitor.traceAroundMethod;
 import static org.usf.inspect.core.SessionContextManager.activeContext;
 import static org.usf.inspect.core.SessionContextManager.createBatchSession;
 import static org.usf.inspect.core.SessionContextManager.createLocalRequest;
+import static org.usf.inspect.core.SessionContextManager.sampleSession;
+import static org.usf.inspect.core.SessionContextManager.unsampledContext;
 import static org.usf.inspect.core.SpelEvaluator.evalMethodExpression;
 
 import org.aspectj.lang.ProceedingJoinPoint;
@@ -43,6 +45,9 @@ public class MethodExecutionMonitor implements Ordered {
 	}
 
 	public static <T, E extends Throwable> T trackCallble(LocalRequestType type, String name, SafeCallable<T,E> fn) throws E {
+		if(unsampledContext()) {
+			return fn.call();
+		}
 		var ste = outerStackTraceElement(); //optimize by avoiding creating stacktrace in traceAroundMethod
 		return call(fn, traceAroundMethod(createLocalRequest(systemUTC().instant()), req->{
 			req.setType(type.name());
@@ -59,7 +64,9 @@ public class MethodExecutionMonitor implements Ordered {
 	}
 
 	Object aroundJob(ProceedingJoinPoint point) throws Throwable {
-		return call(point::proceed, traceAroundMethod(createBatchSession(systemUTC().instant()), ses-> {
+		var session = createBatchSession(systemUTC().instant());
+		session.setSampled(sampleSession(locationFrom(point), null));
+		return call(point::proceed, traceAroundMethod(session, ses-> {
 			ses.setName(resolveStageName(point));
 			ses.setLocation(locationFrom(point));
 			ses.setUser(userProvider.getUser(point, ses.getName()));
@@ -72,6 +79,9 @@ public class MethodExecutionMonitor implements Ordered {
 	}
 	
 	Object aroundMethod(ProceedingJoinPoint point, String type) throws Throwable {
+		if(unsampledContext()) {
+			return point.proceed();
+		}
 		return call(point::proceed, traceAroundMethod(createLocalRequest(systemUTC().instant()), req->{
 			req.setType(type);
 			req.setName(resolveStageName(point));
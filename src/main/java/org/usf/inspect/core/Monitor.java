@@ -6,11 +6,13 @@ import static java.util.Objects.nonNull;
 import static org.usf.inspect.core.ExceptionInfo.fromException;
 import static org.usf.inspect.core.SessionContextManager.clearContext;
 import static org.usf.inspect.core.SessionContextManager.setActiveContext;
+import static org.usf.inspect.core.SessionContextManager.unsampledContext;
 import static org.usf.inspect.core.TraceDispatcherHub.hub;
 
 import java.time.Instant;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.usf.inspect.core.InspectExecutor.ExecutionListener;
 import org.usf.inspect.core.SafeCallable.SafeBiConsumer;
@@ -18,6 +20,7 @@ import org.usf.inspect.core.SafeCallable.SafeConsumer;
 
 import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 
 /**
  * 
@@ -49,21 +52,28 @@ public interface Monitor {
 	}
 	
 	static <T extends TraceSignal, U extends TraceUpdate & AtomicTrace, R> ExecutionListener<R> traceAtomic(T session, Function<T, U> callbackFn, SafeConsumer<T> preProcess, BiConsumer<U, R> postProcess) {
-		try {
-			if(nonNull(preProcess)) {
-				preProcess.accept(session);
+		var sampled = !(session instanceof AbstractSessionSignal ses) || ses.isSampled();
+		if(sampled) {
+			try {
+				if(nonNull(preProcess)) {
+					preProcess.accept(session);
+				}
+				hub().emitTrace(session);
+			}
+			catch (Exception e) {
+				hub().reportError(true, TRACE_ATOMIC_ACTION, e);
 			}
-			hub().emitTrace(session);
-		}
-		catch (Exception e) {
-			hub().reportError(true, TRACE_ATOMIC_ACTION, e);
 		}
 		var callback = callbackFn.apply(session); 
 		if(callback instanceof AbstractSessionUpdate ctx) {
+			ctx.setSampled(sampled);
 			setActiveContext(ctx);
 		}
 		return (s,e,o,t)-> {
-			if(assertStillOpened(callback, TRACE_ATOMIC_ACTION)) {
+			if(!sampled) { //no-op context
+				callback.setEnd(e);
+			}
+			else if(assertStillOpened(callback, TRACE_ATOMIC_ACTION)) {
 				if(nonNull(postProcess)) {
 					try {
 						postProcess.accept(callback, o);
@@ -110,10 +120,16 @@ public interface Monitor {
 		
 		@Getter(AccessLevel.PROTECTED) 
 		private V callback;
+		@Getter(AccessLevel.PROTECTED) 
+		private boolean skipped; //began in unsampled context
+		private StageArena arena; //pooled stages, current chunk
 		
 		protected abstract V createCallback(T session);
 
 		protected <R> ExecutionListener<R> traceBegin(Function<Instant, T> sessionFn, SafeBiConsumer<T, R> preProcess, ExecutionListener<? super R> after){
+			if(skipped = unsampledContext()) {
+				return null; //no trace allocation
+			}
 			return (s,e,o,t)-> {
 				var session = sessionFn.apply(s); //session cannot be null
 				try {
@@ -134,19 +150,63 @@ public interface Monitor {
 		}
 		
 		protected <R> ExecutionListener<R> traceStep(StageCreator<R> stageFn){
-			return (s,e,o,t)-> {
-				if(assertStillOpened(callback, this.getClass().getSimpleName() + ".traceStep")) {
-					var stg = stageFn.createStage(s, e, o, t);
-					if(nonNull(stg)) {
-						hub().emitTrace(stg);
-					}
+			return skipped ? null : new StageListener<>(stageFn, null, -1, null);
+		}
+		
+		/**
+		 * Simple stage (no command, args or exception) recorded in a {@link StageArena} if {@link #pooledStageFactory()} is not null,
+		 * stageFn is used otherwise.
+		 */
+		protected <R> ExecutionListener<R> traceStep(Enum<?> type, long count, StageCreator<R> stageFn){
+			if(skipped) {
+				return null;
+			}
+			var factory = pooledStageFactory();
+			return new StageListener<>(stageFn, nonNull(factory) ? type : null, count, factory);
+		}
+		
+		/**
+		 * @return pooled stage factory, null if pooled stages are disabled
+		 */
+		protected Supplier<? extends AbstractStage> pooledStageFactory() {
+			return null;
+		}
+		
+		protected void emitStage(AbstractStage stg) {
+			if(nonNull(stg)) {
+				hub().emitTrace(stg);
+			}
+		}
+		
+		void appendStage(MonotonicClock clock, Enum<?> type, long start, long end, long count, Supplier<? extends AbstractStage> factory) {
+			var req = (HasStage) callback;
+			var idx = req.getStageCounter().getAndIncrement();
+			if(isNull(arena) || !arena.add(clock, type, start, end, count, idx)) {
+				flushStages();
+				arena = new StageArena(req.getId(), clock, factory);
+				arena.add(clock, type, start, end, count, idx);
+			}
+			if(arena.isFull()) {
+				flushStages();
+			}
+		}
+		
+		protected void flushStages() {
+			if(nonNull(arena)) {
+				if(arena.size() > 0) {
+					hub().emitTrace(arena);
 				}
-			};
+				arena = null; //emitted arena is never reused
+			}
 		}
 		
 		protected <R> ExecutionListener<R> traceEnd(ExecutionListener<? super R> after){
+			if(skipped) {
+				return null;
+			}
 			return (s,e,o,t)-> {
 				if(assertStillOpened(callback, this.getClass().getSimpleName() + ".traceEnd")) {
+					flushStages(); //before last stage
 					if(nonNull(after)) {
 						after.safeHandle(s, e, o, t);
 					}
@@ -155,6 +215,38 @@ public interface Monitor {
 				}
 			};
 		}
+		
+		@RequiredArgsConstructor
+		final class StageListener<R> implements ExecutionListener<R> {
+			
+			private final StageCreator<R> stageFn;
+			private final Enum<?> type; //pooled stage if not null
+			private final long count;
+			private final Supplier<? extends AbstractStage> factory;
+			
+			@Override
+			public void handle(Instant start, Instant end, R obj, Throwable thrw) throws Exception {
+				if(assertStillOpened(callback, StatefulMonitor.this.getClass().getSimpleName() + ".traceStep")) {
+					emitStage(stageFn.createStage(start, end, obj, thrw));
+				}
+			}
+			
+			@Override
+			public void handle(MonotonicClock clock, long start, long end, R obj, Throwable thrw) throws Exception {
+				if(assertStillOpened(callback, StatefulMonitor.this.getClass().getSimpleName() + ".traceStep")) {
+					if(nonNull(type) && isNull(thrw)) {
+						appendStage(clock, type, start, end, count, factory);
+					}
+					else {
+						var stg = stageFn.createStage(null, null, obj, thrw); //period set below, instants built on serialization
+						if(nonNull(stg)) {
+							stg.setPeriod(clock, start, end);
+						}
+						emitStage(stg);
+					}
+				}
+			}
+		}
 	}
 	
 	interface StageCreator<R> {
@@ -18,10 +18,15 @@ public final class MonitoringConfiguration {
 	//v1.1
 	private ResourceMonitoringProperties resources = new ResourceMonitoringProperties();
 	private ExceptionMonitoringConfiguration exception = new ExceptionMonitoringConfiguration();
+	//v1.2
+	private DatabaseMonitoringProperties database = new DatabaseMonitoringProperties();
+	private VirtualThreadMonitoringProperties virtualThread = new VirtualThreadMonitoringProperties();
 	
 	void validate() {
 		httpRoute.validate();
 		resources.validate();
 		exception.validate();
+		database.validate();
+		virtualThread.validate();
 	}
 }
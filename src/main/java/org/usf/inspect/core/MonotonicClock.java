@@ -0,0 +1,43 @@
+package org.usf.inspect.core;
+
+import static java.lang.System.nanoTime;
+import static java.time.Clock.systemUTC;
+import static java.util.Objects.nonNull;
+import static org.usf.inspect.core.SessionContextManager.activeContext;
+
+import java.time.Instant;
+
+/**
+ * Wall-clock anchor (read once) + {@link System#nanoTime()} offsets. 
+ * Durations measured against the same anchor are monotonic, {@link Instant}s are built on demand.
+ * 
+ * @author u$f
+ *
+ */
+public final class MonotonicClock {
+	
+	private static final MonotonicClock processClock = anchor(); //outside any session
+
+	private final long epochSecond;
+	private final long epochNanos; //nano adjustment
+	private final long nanoTime;
+
+	MonotonicClock(Instant instant, long nanoTime) {
+		this.epochSecond = instant.getEpochSecond();
+		this.epochNanos = instant.getNano();
+		this.nanoTime = nanoTime;
+	}
+
+	public Instant instant(long nanoTime) {
+		return Instant.ofEpochSecond(epochSecond, epochNanos + (nanoTime - this.nanoTime)); //normalized
+	}
+	
+	public static MonotonicClock anchor() {
+		return new MonotonicClock(systemUTC().instant(), nanoTime());
+	}
+	
+	public static MonotonicClock currentClock() {
+		var ses = activeContext();
+		return nonNull(ses) ? ses.getClock() : processClock;
+	}
+}
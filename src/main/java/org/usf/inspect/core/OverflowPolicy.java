@@ -0,0 +1,77 @@
+package org.usf.inspect.core;
+
+import static java.lang.Integer.MAX_VALUE;
+import static java.lang.Math.max;
+import static java.util.concurrent.ConcurrentHashMap.newKeySet;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Admission-time overflow policy: once the queue reaches 90% of its capacity, traces are shed on emit 
+ * following the configured priority, low priority types first. Updates (end) get the next priority level 
+ * to avoid dangling signals, session updates are always admitted while the queue is not full.
+ * Updates of rejected signals are rejected too : no dispatch callback without initializer.
+ * 
+ * @author u$f
+ *
+ */
+@Slf4j
+final class OverflowPolicy {
+	
+	private static final TraceCategory[] CATEGORIES = TraceCategory.values();
+	
+	private final int[] signalThresholds = new int[CATEGORIES.length];
+	private final int[] updateThresholds = new int[CATEGORIES.length];
+	private final AtomicLongArray rejected = new AtomicLongArray(CATEGORIES.length); //per category
+	private final Set<String> rejectedSignals = newKeySet(); //removed on update
+	private final int maxRejectedSignals;
+	
+	OverflowPolicy(int capacity, TraceCategory[] priority) {
+		this.maxRejectedSignals = capacity;
+		var start = capacity * 9 / 10; //@see TraceDispatcherHub.tryDispatchIfQueueFull
+		var last = max(1, priority.length-1);
+		for(var i=0; i<priority.length; i++) {
+			var idx = priority[i].ordinal();
+			signalThresholds[idx] = start + (capacity - start) * i / last;
+			updateThresholds[idx] = i < last ? start + (capacity - start) * (i+1) / last : MAX_VALUE;
+		}
+	}
+
+	public boolean admit(EventTrace trace, int size) {
+		var cat = TraceCategory.of(trace);
+		if(trace instanceof TraceUpdate upd && !rejectedSignals.isEmpty() && rejectedSignals.remove(upd.getId())) { //dangling update
+			rejected.incrementAndGet(cat.ordinal());
+			return false;
+		}
+		var max = trace instanceof TraceUpdate ? updateThresholds[cat.ordinal()] : signalThresholds[cat.ordinal()];
+		if(size < max) {
+			return true;
+		}
+		reject(trace);
+		return false;
+	}
+	
+	public void reject(EventTrace trace) {
+		rejected.incrementAndGet(TraceCategory.of(trace).ordinal());
+		if(trace instanceof TraceSignal sgn) {
+			if(rejectedSignals.size() < maxRejectedSignals) {
+				rejectedSignals.add(sgn.getId());
+			}
+			else {
+				log.debug("too many rejected signals, update of '{}' may be dispatched", sgn.getId());
+			}
+		}
+	}
+	
+	public void logRejectedTraces() {
+		for(var c : CATEGORIES) {
+			var n = rejected.getAndSet(c.ordinal(), 0);
+			if(n > 0) {
+				log.warn("queue capacity exceeded, {} traces of type {} were rejected", n, c);
+			}
+		}
+	}
+}
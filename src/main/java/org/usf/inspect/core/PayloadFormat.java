@@ -0,0 +1,19 @@
+package org.usf.inspect.core;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+@Getter
+@RequiredArgsConstructor
+public enum PayloadFormat {
+	
+	JSON("application/json"),
+	SMILE("application/x-jackson-smile"); //binary JSON, requires jackson-dataformat-smile
+	
+	private final String contentType;
+}
@@ -6,7 +6,6 @@ import static java.util.Objects.nonNull;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.UnaryOperator;
 
 import lombok.extern.slf4j.Slf4j;
@@ -19,26 +18,33 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public final class ProcessingQueue<T> {
 
-	private final ConcurrentLinkedQueue<T> queue = new ConcurrentLinkedQueue<>();
-	private boolean waste;
-	
+	private final RingBufferQueue<T> queue;
+
+	public ProcessingQueue(int capacity) {
+		this.queue = new RingBufferQueue<>(capacity << 1); //headroom: requeued & high priority traces, see OverflowPolicy
+	}
+
 	public boolean add(T o) { //return size, reduce sync call
-		return waste || queue.add(o);
+		return queue.offer(o);
 	}
 
 	public boolean addAll(Collection<T> arr){
-		return waste || queue.addAll(arr);
+		var n = 0;
+		for(var o : arr) {
+			if(queue.offer(o)) {
+				n++;
+			}
+		}
+		if(n < arr.size()) {
+			log.warn("queue is full, {} traces were rejected", arr.size()-n);
+		}
+		return n > 0;
 	}
-	
-	public void pollAll(UnaryOperator<List<T>> op) {
-		List<T> items = new ArrayList<>();
+
+	public synchronized void pollAll(UnaryOperator<List<T>> op) { //single consumer
+		List<T> items = new ArrayList<>(queue.size());
 		try {
-			T obj;
-			var idx = 0;
-			var max = queue.size();
-			while (idx++<max && nonNull(obj = queue.poll())) { 
-		        items.add(obj);
-		    }
+			queue.drainTo(items, queue.size());
 			items = op.apply(items); //partial consumption, may return unprocessed items
 		}
 		catch (OutOfMemoryError e) {
@@ -48,13 +54,26 @@ public final class ProcessingQueue<T> {
 		}
 		finally {
 			if(nonNull(items) && !items.isEmpty()) {
-				queue.addAll(items);
+				requeue(items);
 			}
 		}
 	}
-	
-	public List<T> peek() {
-		return new ArrayList<>(queue);
+
+	void requeue(List<T> items) {
+		var n = 0;
+		for(var o : items) {
+			if(!queue.offer(o)) {
+				break;
+			}
+			n++;
+		}
+		if(n < items.size()) {
+			log.warn("queue is full, {} unprocessed traces were aborted", items.size()-n);
+		}
+	}
+
+	public synchronized List<T> peek() {
+		return queue.snapshot();
 	}
 
 	public int size() {
@@ -65,8 +84,4 @@ public final class ProcessingQueue<T> {
 	public String toString() {
 		return queue.toString();
 	}
-	
-	void setWaste(boolean waste) {
-		this.waste = waste;
-	}
-}
\ No newline at end of file
+}
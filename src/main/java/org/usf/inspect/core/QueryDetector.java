@@ -0,0 +1,187 @@
+package org.usf.inspect.core;
+
+import static java.lang.Long.numberOfLeadingZeros;
+import static java.lang.String.format;
+import static java.time.Clock.systemUTC;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.usf.inspect.core.LogEntry.logEntry;
+import static org.usf.inspect.core.LogEntry.Level.WARN;
+import static org.usf.inspect.core.SessionContextManager.activeContext;
+import static org.usf.inspect.core.TraceDispatcherHub.hub;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Online N+1 & slow query detection : executions are counted per session and query fingerprint, 
+ * with a log2 latency histogram. A warning is emitted once per threshold crossed, 
+ * session state is freed (and summarized) when the session is completed.
+ * 
+ * @author u$f
+ *
+ */
+@Slf4j
+public final class QueryDetector implements DispatchHook {
+	
+	static final int MAX_SESSIONS = 4096; //concurrent sessions, bounded memory
+	private static volatile QueryDetector instance; //nullable
+	
+	private final Map<String, SessionQueries> sessions = new ConcurrentHashMap<>();
+	private final int repeatThreshold;
+	private final long slowThreshold;
+	private final int maxQueries;
+
+	QueryDetector(QueryDetectorProperties properties) {
+		this.repeatThreshold = properties.getRepeatThreshold();
+		this.slowThreshold = properties.getSlowThreshold().toNanos();
+		this.maxQueries = properties.getMaxQueries();
+	}
+	
+	static QueryDetector start(QueryDetectorProperties properties) {
+		var dtc = new QueryDetector(properties);
+		instance = dtc;
+		return dtc;
+	}
+	
+	public static boolean isEnabled() {
+		return nonNull(instance);
+	}
+	
+	/**
+	 * @param duration in nanoseconds
+	 */
+	public static void record(long fingerprint, String command, long duration) {
+		var dtc = instance;
+		if(nonNull(dtc)) {
+			var ses = activeContext();
+			if(nonNull(ses) && ses.isSampled()) {
+				dtc.record(ses, fingerprint, command, duration);
+			}
+		}
+	}
+	
+	void record(AbstractSessionUpdate ses, long fingerprint, String command, long duration) {
+		var sq = sessions.get(ses.getId());
+		if(isNull(sq)) {
+			if(sessions.size() >= MAX_SESSIONS) {
+				return; 
+			}
+			sq = sessions.computeIfAbsent(ses.getId(), k-> new SessionQueries(ses));
+		}
+		var msg = sq.record(fingerprint, command, duration);
+		if(nonNull(msg)) {
+			log.warn(msg);
+			var entry = logEntry(WARN, msg);
+			entry.setSessionId(ses.getId());
+			hub().emitTrace(entry);
+		}
+	}
+	
+	@Override
+	public void onSchedule(TraceHub ctx) {
+		var now = systemUTC().instant();
+		for(var it=sessions.values().iterator(); it.hasNext();) {
+			var sq = it.next();
+			if(sq.session.wasCompleted()) {
+				it.remove();
+				for(var qs : sq.reports()) {
+					ctx.emitTrace(new QueryPatternReport(now, sq.session.getId(), hex(qs.fingerprint), qs.command, 
+							qs.count, qs.totalDuration, qs.maxDuration, qs.p99(), qs.repeated, qs.slow));
+				}
+			}
+		}
+	}
+	
+	int sessionCount() {
+		return sessions.size();
+	}
+	
+	static String hex(long fingerprint) {
+		return format("%016x", fingerprint);
+	}
+	
+	final class SessionQueries {
+		
+		private final AbstractSessionUpdate session;
+		private final Map<Long, QueryStats> queries = new HashMap<>();
+		
+		SessionQueries(AbstractSessionUpdate session) {
+			this.session = session;
+		}
+
+		synchronized String record(long fingerprint, String command, long duration) { //warning message, nullable
+			var qs = queries.get(fingerprint);
+			if(isNull(qs)) {
+				if(queries.size() >= maxQueries) {
+					return null;
+				}
+				qs = new QueryStats(fingerprint, command);
+				queries.put(fingerprint, qs);
+			}
+			qs.append(duration);
+			if(!qs.repeated && qs.count >= repeatThreshold) {
+				qs.repeated = true;
+				return format("N+1 query suspected : %s %s executed %d times in session %s", command, hex(fingerprint), qs.count, session.getId());
+			}
+			if(!qs.slow && duration >= slowThreshold && qs.p99() >= slowThreshold) {
+				qs.slow = true;
+				return format("slow query : %s %s p99=%dms over %d executions in session %s", command, hex(fingerprint), qs.p99() / 1_000_000, qs.count, session.getId());
+			}
+			return null;
+		}
+		
+		synchronized List<QueryStats> reports() {
+			var arr = new ArrayList<QueryStats>();
+			for(var qs : queries.values()) {
+				if(qs.repeated || qs.slow) {
+					arr.add(qs);
+				}
+			}
+			return arr;
+		}
+	}
+	
+	static final class QueryStats {
+		
+		private final long fingerprint;
+		private final String command;
+		private final int[] histogram = new int[64]; //log2(nanos)
+		private int count;
+		private long totalDuration;
+		private long maxDuration;
+		private boolean repeated;
+		private boolean slow;
+		
+		QueryStats(long fingerprint, String command) {
+			this.fingerprint = fingerprint;
+			this.command = command;
+		}
+		
+		void append(long duration) {
+			count++;
+			totalDuration += duration;
+			if(duration > maxDuration) {
+				maxDuration = duration;
+			}
+			histogram[63 - numberOfLeadingZeros(duration | 1)]++;
+		}
+		
+		long p99() { //bucket upper bound, max otherwise
+			var target = count - count / 100; 
+			var n = 0;
+			for(var i=0; i<histogram.length; i++) {
+				n += histogram[i];
+				if(n >= target) {
+					return i < 62 ? Math.min((1L << (i+1)) - 1, maxDuration) : maxDuration;
+				}
+			}
+			return maxDuration;
+		}
+	}
+}
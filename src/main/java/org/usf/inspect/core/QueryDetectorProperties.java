@@ -0,0 +1,37 @@
+package org.usf.inspect.core;
+
+import static java.time.Duration.ofMillis;
+import static java.time.Duration.ofMinutes;
+import static java.time.Duration.ofSeconds;
+import static org.usf.inspect.core.Assertions.assertBetween;
+import static org.usf.inspect.core.Assertions.assertGreaterOrEquals;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+@Getter
+@Setter
+@ToString
+public final class QueryDetectorProperties {
+
+	private boolean enabled;
+	private int repeatThreshold = 50; // same query per session => N+1 warning
+	private Duration slowThreshold = ofSeconds(1); // query p99 per session => slow query warning
+	private int maxQueries = 64; // distinct queries tracked per session
+	
+	void validate() {
+		if(enabled) {
+			assertGreaterOrEquals(repeatThreshold, 2, "repeat-threshold");
+			assertBetween(slowThreshold, ofMillis(1), ofMinutes(10), "slow-threshold");
+			assertGreaterOrEquals(maxQueries, 1, "max-queries");
+		}
+	}
+}
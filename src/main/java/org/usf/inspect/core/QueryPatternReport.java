@@ -0,0 +1,43 @@
+package org.usf.inspect.core;
+
+import static java.lang.String.format;
+
+import java.time.Instant;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Session summary of a query that crossed a {@link QueryDetector} threshold, durations in nanoseconds.
+ * 
+ * @author u$f
+ *
+ */
+@Setter
+@Getter
+@RequiredArgsConstructor
+public final class QueryPatternReport implements EventTrace {
+	
+	private final Instant instant;
+	private final String sessionId;
+	private final String fingerprint; //hex
+	private final String command;
+	private final int count;
+	private final long totalDuration;
+	private final long maxDuration;
+	private final long p99Duration; //histogram upper bound
+	private final boolean repeated; //N+1
+	private final boolean slow;
+	private String instanceId; //server usage 
+	
+	@Override
+	public String toString() {
+		return new EventTraceFormatter()
+		.withAction("QUERY")
+		.withInstant(instant)
+		.withMessageAsTopic(format("%s %s x%d | p99: %dms | max: %dms", 
+				command, fingerprint, count, p99Duration / 1_000_000, maxDuration / 1_000_000))
+		.format();
+	}
+}
@@ -0,0 +1,73 @@
+package org.usf.inspect.core;
+
+import static java.util.Objects.isNull;
+import static org.usf.inspect.core.Sampler.currentSecond;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * At most {@code limit} sessions per second and per key (approximate fixed window).
+ * Keys are expected to be bounded (route pattern, job name), idle windows are evicted.
+ * 
+ * @author u$f
+ *
+ */
+final class RateLimitedSampler implements Sampler {
+	
+	static final int MAX_KEYS = 1_000; //bounded, other keys share the same window
+	static final int IDLE_SECONDS = 60; //evicted after
+
+	private final Map<String, Window> windows = new ConcurrentHashMap<>();
+	private final Window shared = new Window();
+	private final AtomicLong lastEviction = new AtomicLong();
+	private final int limit;
+	
+	RateLimitedSampler(int limit) {
+		this.limit = limit;
+	}
+
+	@Override
+	public boolean sample(String key) {
+		return sample(key, currentSecond());
+	}
+	
+	boolean sample(String key, long sec) {
+		evictIdleWindows(sec, false);
+		var w = isNull(key) ? shared : windows.get(key);
+		if(isNull(w)) {
+			if(windows.size() >= MAX_KEYS) {
+				evictIdleWindows(sec, true);
+			}
+			w = windows.size() < MAX_KEYS ? windows.computeIfAbsent(key, k-> new Window()) : shared;
+		}
+		return w.acquire(limit, sec);
+	}
+	
+	void evictIdleWindows(long sec, boolean force) {
+		var last = lastEviction.get();
+		if(sec - last >= (force ? 1 : IDLE_SECONDS) && lastEviction.compareAndSet(last, sec)) { //once per second if full, single thread
+			windows.values().removeIf(w-> sec - w.second.get() >= IDLE_SECONDS);
+		}
+	}
+	
+	int size() {
+		return windows.size();
+	}
+	
+	static final class Window {
+		
+		private final AtomicLong second = new AtomicLong(-1);
+		private final AtomicInteger count = new AtomicInteger();
+		
+		boolean acquire(int limit, long sec) {
+			var s = second.get();
+			if(s != sec && second.compareAndSet(s, sec)) {
+				count.set(0); //concurrent increments may be lost
+			}
+			return count.incrementAndGet() <= limit;
+		}
+	}
+}
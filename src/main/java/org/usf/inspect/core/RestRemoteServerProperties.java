@@ -4,7 +4,11 @@ import static java.net.URI.create;
 import static java.time.Duration.ofDays;
 import static org.usf.inspect.core.Assertions.assertAbsolute;
 import static org.usf.inspect.core.Assertions.assertBetween;
+import static org.usf.inspect.core.Assertions.assertClassPresent;
+import static org.usf.inspect.core.Assertions.assertGreaterOrEquals;
 import static org.usf.inspect.core.Assertions.assertPositive;
+import static org.usf.inspect.core.PayloadFormat.JSON;
+import static org.usf.inspect.core.PayloadFormat.SMILE;
 
 import java.net.URI;
 import java.time.Duration;
@@ -29,6 +33,11 @@ public final class RestRemoteServerProperties implements RemoteServerProperties
 	private int compressMinSize = 0; // size in bytes, 0: no compression
 	//v1.1
 	private Duration retentionMaxAge = ofDays(30);
+	//v1.2
+	private boolean streaming = false; // write traces directly to the request body (chunked), gzip if compress-min-size > 0
+	private PayloadFormat format = JSON; // SMILE: binary payload, falls back to JSON if not supported by the server
+	private int fileChunkSize = 1_000; // max traces per dump file upload request
+	private int fileChunkMaxBytes = 4 * 1024 * 1024; // max bytes per dump file upload request
 	
 	@Override
 	public void validate() {
@@ -37,6 +46,11 @@ public final class RestRemoteServerProperties implements RemoteServerProperties
 		instanceURI = base + instanceURI;
 		tracesURI = base + tracesURI;
 		assertPositive(compressMinSize, "compress-min-size");
+		assertGreaterOrEquals(fileChunkSize, 1, "file-chunk-size");
+		assertGreaterOrEquals(fileChunkMaxBytes, 1024, "file-chunk-max-bytes");
 		assertBetween(retentionMaxAge, ofDays(1), ofDays(365), "retention-max-age");
+		if(format == SMILE) {
+			assertClassPresent("com.fasterxml.jackson.dataformat.smile.SmileFactory", "format");
+		}
 	}
 }
@@ -1,36 +1,64 @@
 package org.usf.inspect.core;
 
+import static java.lang.Integer.parseInt;
+import static java.lang.Long.parseLong;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.exists;
+import static java.nio.file.Files.move;
+import static java.nio.file.Files.readString;
+import static java.nio.file.Files.writeString;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static java.time.Clock.systemUTC;
 import static java.time.Duration.ofSeconds;
 import static java.util.Collections.emptyList;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.Optional.empty;
 import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpMethod.PUT;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.util.StreamUtils.nonClosing;
 import static org.springframework.web.util.UriComponentsBuilder.fromUriString;
+import static org.usf.inspect.core.PayloadFormat.JSON;
+import static org.usf.inspect.core.PayloadFormat.SMILE;
 import static org.usf.inspect.core.TraceDispatcherHub.hub;
+import static com.fasterxml.jackson.core.JsonToken.END_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.SocketTimeoutException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.HttpClientErrorException.UnsupportedMediaType;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -39,21 +67,34 @@ import lombok.extern.slf4j.Slf4j;
  *
  */
 @Slf4j
-@RequiredArgsConstructor
 public final class RestTraceExporter implements TraceExporter {
 
+	private static final int BUFFER_SIZE = 8 * 1024;
+
 	private final RestRemoteServerProperties properties;
 	private final ObjectMapper mapper;
 	private final RestTemplate template;
-	private int attempts;
+	private final ObjectWriter writer;
+	private final ObjectWriter binaryWriter; //nullable
+	private final AtomicInteger attempts = new AtomicInteger(); //parallel dispatch
 
-	private InstanceEnvironment instance;
-	private boolean registred;
+	private volatile InstanceEnvironment instance;
+	private volatile boolean registred;
+	private volatile boolean binary;
 
 	public RestTraceExporter(RestRemoteServerProperties properties, ObjectMapper mapper) {
 		this(properties, mapper, defaultRestTemplate(properties, mapper));
 	}
 
+	public RestTraceExporter(RestRemoteServerProperties properties, ObjectMapper mapper, RestTemplate template) {
+		this.properties = properties;
+		this.mapper = mapper;
+		this.template = template;
+		this.writer = mapper.writerFor(EventTrace.class); //keep @type
+		this.binaryWriter = properties.getFormat() == SMILE ? SmilePayload.binaryMapper(mapper).writerFor(EventTrace.class) : null;
+		this.binary = nonNull(binaryWriter);
+	}
+
 	@Override
 	public void dispatch(InstanceEnvironment instance) {
 		this.instance = instance; //register on next dispatch
@@ -64,14 +105,27 @@ public final class RestTraceExporter implements TraceExporter {
 		var id = getOrRegisterInstanceId();
 		try {
 			var uri = fromUriString(properties.getTracesURI())
-					.queryParam("attempts", ++attempts)
+					.queryParam("attempts", attempts.incrementAndGet())
 					.queryParamIfPresent ("end", complete ? Optional.of(systemUTC().instant()) : empty())
 					.buildAndExpand(id).toUri();
-			template.put(uri, traces.toArray(EventTrace[]::new)); //issue https://github.com/FasterXML/jackson-core/issues/1459
-			attempts = 0;
+			if(binary) {
+				template.execute(uri, PUT, req-> writeTraces(req, traces, binaryWriter, SMILE), null);
+			}
+			else if(properties.isStreaming()) {
+				template.execute(uri, PUT, req-> writeTraces(req, traces, writer, JSON), null);
+			}
+			else {
+				template.put(uri, traces.toArray(EventTrace[]::new)); //issue https://github.com/FasterXML/jackson-core/issues/1459
+			}
+			attempts.set(0);
 			return emptyList(); //no partial dispatch
 		}
 		catch (RestClientException e) { //server / client ?
+			if(binary && e instanceof UnsupportedMediaType) { //content-type negotiation
+				binary = false;
+				log.warn("{} payload format is not supported by the server, switching to {}", SMILE, JSON);
+				return dispatch(complete, traces);
+			}
 			if(shouldRetry(e)) {
 				throw new DispatchException("traces dispatch error", e);
 			} //else may be lost
@@ -80,37 +134,110 @@ public final class RestTraceExporter implements TraceExporter {
 		}
 	}
 	
+	void writeTraces(ClientHttpRequest req, List<EventTrace> traces, ObjectWriter writer, PayloadFormat format) throws IOException {
+		var gzip = properties.isStreaming() && properties.getCompressMinSize() > 0; //size is unknown while streaming, else see bodyCompressionInterceptor
+		req.getHeaders().set(CONTENT_TYPE, format.getContentType());
+		if(gzip) {
+			req.getHeaders().set(CONTENT_ENCODING, "gzip");
+		}
+		if(req instanceof StreamingHttpOutputMessage msg) { //spring 6.1+
+			msg.setBody(os-> writeTraces(os, traces, writer, gzip));
+		}
+		else {
+			writeTraces(req.getBody(), traces, writer, gzip);
+		}
+	}
+
+	static void writeTraces(OutputStream os, List<EventTrace> traces, ObjectWriter writer, boolean gzip) throws IOException {
+		var out = gzip ? new GZIPOutputStream(nonClosing(os), BUFFER_SIZE) : nonClosing(os);
+		try(var gen = writer.getFactory().createGenerator(out);
+			var seq = writer.writeValuesAsArray(gen)) { //write traces one by one
+			for(var t : traces) {
+				seq.write(t);
+			}
+		} //close generator => finish gzip
+	}
+	
 	@Override
-	public void dispatch(File dumpFile) { //TD send FileSystemResource ?
+	public void dispatch(File dumpFile) { //NDJSON segment or JSON array, see EventTraceDumper
 		var id = getOrRegisterInstanceId();
+		var ckp = FileCheckpoint.load(dumpFile); //resume after crash or failed chunk
+		try(var in = openFile(dumpFile); 
+			var parser = mapper.getFactory().createParser(in)) {
+			var buf = new ByteArrayOutputStream(BUFFER_SIZE);
+			var tkn = parser.nextToken();
+			if(tkn == START_ARRAY) {
+				tkn = parser.nextToken();
+			}
+			var idx = 0L;
+			var chunk = (JsonGenerator) null;
+			var n = 0;
+			for(; nonNull(tkn) && tkn != END_ARRAY; tkn = parser.nextToken(), idx++) {
+				if(idx < ckp.offset) {
+					parser.skipChildren(); //already dispatched
+					continue;
+				}
+				if(isNull(chunk)) {
+					buf.reset();
+					chunk = mapper.getFactory().createGenerator(buf);
+					chunk.writeStartArray();
+				}
+				chunk.copyCurrentStructure(parser); //no tree, no binding
+				chunk.flush();
+				if(++n >= properties.getFileChunkSize() || buf.size() >= properties.getFileChunkMaxBytes()) {
+					dispatchChunk(id, dumpFile, chunk, buf, n, ckp, idx+1);
+					chunk = null;
+					n = 0;
+				}
+			}
+			if(nonNull(chunk)) {
+				dispatchChunk(id, dumpFile, chunk, buf, n, ckp, idx);
+			}
+			ckp.delete();
+		}
+		catch (IOException e) {
+			throw new DispatchException("file dispatch error", e);
+		}
+	}
+	
+	void dispatchChunk(String id, File dumpFile, JsonGenerator chunk, ByteArrayOutputStream buf, int n, FileCheckpoint ckp, long next) throws IOException {
+		chunk.writeEndArray();
+		chunk.close();
 		try {
 			var uri = fromUriString(properties.getTracesURI())
-					.queryParam("attempts", attempts)
+					.queryParam("attempts", ckp.attempts+1)
 					.queryParam("filename", dumpFile.getName())
 					.buildAndExpand(id).toUri();
-			template.put(uri, mapper.readTree(dumpFile)); //use dispatch splitor
+			template.execute(uri, PUT, req-> {
+				req.getHeaders().set(CONTENT_TYPE, APPLICATION_JSON_VALUE);
+				if(req instanceof StreamingHttpOutputMessage msg) { //spring 6.1+
+					msg.setBody(buf::writeTo);
+				}
+				else {
+					buf.writeTo(req.getBody());
+				}
+			}, null);
 		}
 		catch (RestClientException e) { //server / client ?
-			if(shouldRetry(e)) {
-				throw new DispatchException("file dispatch error", e);
+			if(shouldRetry(e)) { //retry this chunk only
+				ckp.save(ckp.offset, ckp.attempts+1);
+				throw new DispatchException("file chunk dispatch error", e);
 			} //else may be lost
-			log.warn("file dispatch failed, will not retry {}", dumpFile);
-		}
-		catch (IOException e) {
-			throw new DispatchException("file dispatch error", e);
+			log.warn("dispatching {} traces from file {} failed, will not retry", n, dumpFile);
 		}
+		ckp.save(next, 0);
 	}
 	
-	String getOrRegisterInstanceId() {
+	synchronized String getOrRegisterInstanceId() {
 		if(registred) {
 			return instance.getId();
 		}
 		if(nonNull(instance)) {
 			try {
-				++attempts;
+				attempts.incrementAndGet();
 				template.postForObject(properties.getInstanceURI(), instance, String.class);
 				registred = true;
-				attempts = 0;
+				attempts.set(0);
 				log.info("instance was registred with id={}", instance.getId());
 				return instance.getId();
 			}
@@ -148,6 +275,65 @@ public final class RestTraceExporter implements TraceExporter {
 		return true;
 	}
 
+	static InputStream openFile(File file) throws IOException {
+		var in = new FileInputStream(file);
+		try {
+			return file.getName().endsWith(".gz") ? new GZIPInputStream(in, BUFFER_SIZE) : in;
+		}
+		catch (IOException e) {
+			in.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Dump file upload progress : [offset] traces were dispatched, [attempts] of the next chunk.
+	 * Keyed by the segment id (file name without attempt suffix), so it survives a renamed segment.
+	 */
+	static final class FileCheckpoint {
+		
+		private final Path path;
+		private long offset;
+		private int attempts;
+		
+		FileCheckpoint(Path path) {
+			this.path = path;
+		}
+		
+		void save(long offset, int attempts) throws IOException {
+			this.offset = offset;
+			this.attempts = attempts;
+			var tmp = path.resolveSibling(path.getFileName() + ".tmp");
+			writeString(tmp, offset + ":" + attempts);
+			move(tmp, path, REPLACE_EXISTING, ATOMIC_MOVE);
+		}
+		
+		void delete() throws IOException {
+			deleteIfExists(path);
+		}
+		
+		static FileCheckpoint load(File dumpFile) {
+			var ckp = new FileCheckpoint(path(dumpFile.toPath()));
+			if(exists(ckp.path)) {
+				try {
+					var arr = readString(ckp.path).trim().split(":");
+					ckp.offset = parseLong(arr[0]);
+					ckp.attempts = parseInt(arr[1]);
+				}
+				catch (Exception e) { //corrupted => restart
+					log.warn("cannot read checkpoint {}, file will be sent from the beginning", ckp.path);
+				}
+			}
+			return ckp;
+		}
+		
+		static Path path(Path dumpFile) {
+			var fn = dumpFile.getFileName().toString();
+			var idx = fn.indexOf('~'); //attempts suffix, ex: dump_123.ndjson~2
+			return dumpFile.resolveSibling((idx > -1 ? fn.substring(0, idx) : fn) + ".ckp");
+		}
+	}
+
 	static RestTemplate defaultRestTemplate(RestRemoteServerProperties properties, ObjectMapper mapper) {
 		var json = new MappingJackson2HttpMessageConverter(mapper);
 		var plain = new StringHttpMessageConverter(); //for instanceID
@@ -156,20 +342,31 @@ public final class RestTraceExporter implements TraceExporter {
 				.setConnectTimeout(ofSeconds(10))
 				.setReadTimeout(ofSeconds(30))
 				.defaultHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE);
-		if(properties.getCompressMinSize() > 0) {
+		if(properties.isStreaming()) { //chunked transfer, interceptors would buffer the body
+			rt = rt.requestFactory(RestTraceExporter::streamingRequestFactory);
+		}
+		else if(properties.getCompressMinSize() > 0) {
 			rt = rt.interceptors(bodyCompressionInterceptor(properties.getCompressMinSize()));
 		}
 		return rt.build();
 	}
 
+	@SuppressWarnings("deprecation")
+	static ClientHttpRequestFactory streamingRequestFactory() {
+		var factory = new SimpleClientHttpRequestFactory();
+		factory.setBufferRequestBody(false); //spring 6.0 only, never buffered since 6.1
+		factory.setChunkSize(BUFFER_SIZE);
+		factory.setConnectTimeout(10_000);
+		factory.setReadTimeout(30_000);
+		return factory;
+	}
+
 	static ClientHttpRequestInterceptor bodyCompressionInterceptor(int size) {
 		return (req, body, exec)->{
 			if(body.length >= size) {
-				var baos = new ByteArrayOutputStream();
-				try (var gos = new GZIPOutputStream(baos)) {
-					gos.write(body);
+				try {
+					body = gzip(body);
 					req.getHeaders().add(CONTENT_ENCODING, "gzip");
-					body = baos.toByteArray();
 				}
 				catch (Exception e) {/*do not throw exception */
 					hub().reportError(false, "RestTraceExporter.bodyCompressionInterceptor", e);
@@ -178,4 +375,12 @@ public final class RestTraceExporter implements TraceExporter {
 			return exec.execute(req, body);
 		};
 	}
+
+	static byte[] gzip(byte[] body) throws IOException {
+		var baos = new ByteArrayOutputStream();
+		try (var gos = new GZIPOutputStream(baos)) {
+			gos.write(body);
+		} //close => finish
+		return baos.toByteArray();
+	}
 }
@@ -0,0 +1,33 @@
+package org.usf.inspect.core;
+
+import static java.time.Duration.ofMillis;
+import static java.time.Duration.ofNanos;
+import static java.time.Duration.ofSeconds;
+import static org.usf.inspect.core.Assertions.assertBetween;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+@Getter
+@Setter
+@ToString
+public final class ResultSetMonitoringProperties {
+
+	private boolean enabled;
+	private Duration stallThreshold = ofMillis(1); // longer next() => fetch round trip
+	private boolean bytes; // approximate bytes read, getBytes & getString
+	
+	void validate() {
+		if(enabled) {
+			assertBetween(stallThreshold, ofNanos(1_000), ofSeconds(10), "stall-threshold");
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package org.usf.inspect.core;
+
+import static java.lang.Integer.highestOneBit;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Objects.nonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded multi-producer / single-consumer ring buffer (per-slot sequence, see D. Vyukov bounded queue).
+ * Slots are pre-allocated, {@link #size()} is O(1) and items are drained in batch.
+ *
+ * @author u$f
+ *
+ */
+final class RingBufferQueue<T> {
+
+	private final AtomicReferenceArray<T> items;
+	private final AtomicLongArray sequences;
+	private final AtomicLong tail = new AtomicLong(); //producers
+	private volatile long head; //single consumer
+	private final int mask;
+
+	RingBufferQueue(int capacity) {
+		var n = max(2, capacity);
+		n = highestOneBit(n) == n ? n : highestOneBit(n) << 1; //power of two
+		this.items = new AtomicReferenceArray<>(n);
+		this.sequences = new AtomicLongArray(n);
+		this.mask = n-1;
+		for(var i=0; i<n; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	public boolean offer(T o) {
+		long pos;
+		do {
+			pos = tail.get();
+			var dif = sequences.get((int) pos & mask) - pos;
+			if(dif < 0) {
+				return false; //full
+			}
+			if(dif > 0) {
+				continue; //another producer took this slot
+			}
+		} while(!tail.compareAndSet(pos, pos+1));
+		var idx = (int) pos & mask;
+		items.set(idx, o);
+		sequences.set(idx, pos+1); //publish
+		return true;
+	}
+
+	/**
+	 * must be called by a single consumer at a time
+	 */
+	public T poll() {
+		var pos = head;
+		var idx = (int) pos & mask;
+		if(sequences.get(idx) - (pos+1) < 0) {
+			return null; //empty or not yet published
+		}
+		var o = items.get(idx);
+		items.set(idx, null); //release reference
+		sequences.set(idx, pos+capacity());
+		head = pos+1;
+		return o;
+	}
+
+	/**
+	 * must be called by a single consumer at a time
+	 */
+	public int drainTo(Collection<? super T> c, int max) {
+		var n = 0;
+		T o;
+		while(n<max && nonNull(o = poll())) {
+			c.add(o);
+			n++;
+		}
+		return n;
+	}
+
+	/**
+	 * weakly consistent snapshot, items may be added or removed meanwhile
+	 */
+	public List<T> snapshot() {
+		var pos = head;
+		var end = tail.get();
+		var list = new ArrayList<T>(size());
+		for(; pos<end; pos++) {
+			var o = items.get((int) pos & mask);
+			if(nonNull(o)) {
+				list.add(o);
+			}
+		}
+		return list;
+	}
+
+	public int size() {
+		var s = tail.get() - head; //reserved slots included
+		return (int) max(0, min(s, capacity()));
+	}
+
+	public int capacity() {
+		return mask+1;
+	}
+
+	@Override
+	public String toString() {
+		return snapshot().toString();
+	}
+}
@@ -0,0 +1,36 @@
+package org.usf.inspect.core;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Head-based session sampler, the decision is taken once when the session is created.
+ * 
+ * @author u$f
+ *
+ */
+@FunctionalInterface
+public interface Sampler {
+	
+	boolean sample(String key); //endpoint, job name,.. nullable
+	
+	static Sampler sampler(SamplingProperties prop) {
+		return switch (prop.getMode()) {
+		case ALWAYS -> alwaysSample();
+		case FIXED_RATE -> fixedRate(prop.getRate());
+		case RATE_LIMITED -> new RateLimitedSampler(prop.getMaxPerSecond());
+		case ADAPTIVE -> new AdaptiveSampler(prop.getMaxPerSecond());
+		};
+	}
+	
+	static Sampler alwaysSample() {
+		return k-> true;
+	}
+	
+	static Sampler fixedRate(double rate) {
+		return k-> ThreadLocalRandom.current().nextDouble() < rate;
+	}
+	
+	static long currentSecond() {
+		return System.nanoTime() / 1_000_000_000; //monotonic window
+	}
+}
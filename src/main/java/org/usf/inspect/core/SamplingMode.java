@@ -0,0 +1,15 @@
+package org.usf.inspect.core;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+public enum SamplingMode {
+	
+	ALWAYS, FIXED_RATE, RATE_LIMITED, ADAPTIVE;
+	
+	public boolean isKeyed() { //sampled per endpoint/job
+		return this == RATE_LIMITED;
+	}
+}
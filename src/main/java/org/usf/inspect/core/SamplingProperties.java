@@ -0,0 +1,30 @@
+package org.usf.inspect.core;
+
+import static org.usf.inspect.core.Assertions.assertBetween;
+import static org.usf.inspect.core.Assertions.assertGreaterOrEquals;
+import static org.usf.inspect.core.SamplingMode.ALWAYS;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+@Getter
+@Setter
+@ToString
+public final class SamplingProperties {
+
+	private SamplingMode mode = ALWAYS;
+	private double rate = 1; // FIXED_RATE: sampled sessions ratio [0..1]
+	private int maxPerSecond = 100; // RATE_LIMITED: per endpoint/job, ADAPTIVE: all sessions (target)
+	private boolean honourUpstream = true; // follow the caller decision (trace header)
+	
+	void validate() {
+		assertBetween(rate, 0., 1., "rate");
+		assertGreaterOrEquals(maxPerSecond, 1, "max-per-second");
+	}
+}
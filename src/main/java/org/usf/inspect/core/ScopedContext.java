@@ -0,0 +1,114 @@
+package org.usf.inspect.core;
+
+import static java.lang.Boolean.parseBoolean;
+import static java.lang.System.getProperty;
+import static java.lang.invoke.MethodHandles.publicLookup;
+import static java.lang.invoke.MethodType.methodType;
+import static java.util.Objects.nonNull;
+
+import java.lang.invoke.MethodHandle;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@code ScopedValue} session carrier, resolved once at startup : preview API before Java 25, so it is
+ * linked through method handles instead of being compiled against. Disabled with {@code -Dinspect.context.scoped-value=false}.
+ *
+ * @author u$f
+ *
+ */
+@Slf4j
+final class ScopedContext {
+
+	private static final Object SCOPE; //ScopedValue<AbstractSessionUpdate>, null if not available
+	private static final MethodHandle WHERE; //(ScopedValue, Object) Carrier
+	private static final MethodHandle RUN; //(Carrier, Runnable) void
+	private static final MethodHandle IS_BOUND; //(ScopedValue) boolean
+	private static final MethodHandle GET; //(ScopedValue) Object
+
+	static {
+		Object scope = null;
+		MethodHandle where = null, run = null, isBound = null, get = null;
+		if(parseBoolean(getProperty("inspect.context.scoped-value", "true"))) {
+			try {
+				var lkp = publicLookup();
+				var svc = Class.forName("java.lang.ScopedValue");
+				var crr = Class.forName("java.lang.ScopedValue$Carrier");
+				where = lkp.findStatic(svc, "where", methodType(crr, svc, Object.class)).asType(methodType(Object.class, Object.class, Object.class));
+				run = lkp.findVirtual(crr, "run", methodType(void.class, Runnable.class)).asType(methodType(void.class, Object.class, Runnable.class));
+				isBound = lkp.findVirtual(svc, "isBound", methodType(boolean.class)).asType(methodType(boolean.class, Object.class));
+				get = lkp.findVirtual(svc, "get", methodType(Object.class)).asType(methodType(Object.class, Object.class));
+				scope = lkp.findStatic(svc, "newInstance", methodType(svc)).invoke();
+				log.debug("ScopedValue context carrier is enabled");
+			} catch (Throwable e) { //java < 21, removed or changed API
+				scope = null;
+				log.debug("ScopedValue is not available, ThreadLocal context carrier will be used : {}", e.getMessage());
+			}
+		}
+		SCOPE = scope;
+		WHERE = where;
+		RUN = run;
+		IS_BOUND = isBound;
+		GET = get;
+	}
+
+	private ScopedContext() {}
+
+	static boolean isAvailable() {
+		return nonNull(SCOPE);
+	}
+
+	static AbstractSessionUpdate current() {
+		try {
+			return (boolean) IS_BOUND.invokeExact(SCOPE) ? (AbstractSessionUpdate) (Object) GET.invokeExact(SCOPE) : null;
+		} catch (Throwable e) { //should never happen
+			throw new IllegalStateException("cannot read scoped context", e);
+		}
+	}
+
+	static <T, E extends Throwable> T callWhere(AbstractSessionUpdate ctx, SafeCallable<T, E> call) throws E {
+		var op = new ScopedCall<>(call);
+		try {
+			var carrier = (Object) WHERE.invokeExact(SCOPE, (Object) ctx);
+			RUN.invokeExact(carrier, (Runnable) op);
+		} catch (Throwable e) { //should never happen
+			throw new IllegalStateException("cannot bind scoped context", e);
+		}
+		return op.result();
+	}
+
+	static final class ScopedCall<T, E extends Throwable> implements Runnable {
+
+		private final SafeCallable<T, E> call;
+		private T result;
+		private Throwable error;
+
+		ScopedCall(SafeCallable<T, E> call) {
+			this.call = call;
+		}
+
+		@Override
+		public void run() {
+			try {
+				result = call.call();
+			}
+			catch (Throwable e) { //rethrown by caller
+				error = e;
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		T result() throws E {
+			if(nonNull(error)) {
+				if(error instanceof RuntimeException re) {
+					throw re;
+				}
+				if(error instanceof Error er) {
+					throw er;
+				}
+				throw (E) error; //checked exception thrown by call
+			}
+			return result;
+		}
+	}
+}
@@ -1,10 +1,11 @@
 package org.usf.inspect.core;
 
 import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.lang.Thread.currentThread;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.Objects.requireNonNullElseGet;
-import static java.util.UUID.randomUUID;
 import static org.usf.inspect.core.Helper.threadName;
 import static org.usf.inspect.core.LogEntry.logEntry;
 import static org.usf.inspect.core.LogEntry.Level.ERROR;
@@ -22,7 +23,9 @@ import static org.usf.inspect.core.RequestMask.SMTP;
 import static org.usf.inspect.core.TraceDispatcherHub.hub;
 
 import java.time.Instant;
+import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Supplier;
 
 import org.usf.inspect.core.LogEntry.Level;
@@ -38,14 +41,18 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class SessionContextManager {
 
-	private static final ThreadLocal<AbstractSessionUpdate> localTrace = new ThreadLocal<>(); //replaceable ScopedValue in Java 21+
+	private static final ThreadLocal<AbstractSessionUpdate> localTrace = new ThreadLocal<>(); //set/clear lifecycle (interceptors, monitors)
+	private static final boolean SCOPED = ScopedContext.isAvailable(); //v1.2 wrapped tasks bind a ScopedValue, see callWithContext
 	private static AbstractSessionUpdate startupContext; //avoid ThreadLocal for startup context
 
     public static Runnable aroundRunnable(Runnable cmd) {
     	var ses = activeContext(); //do not use requireActiveContext
     	if(nonNull(ses)) {
     		ses.threadCountUp();
-    		return ()-> runWithContext(ses, cmd, ses::threadCountDown);
+    		return ()-> {
+    			bindThread(ses);
+    			runWithContext(ses, cmd, ses::threadCountDown);
+    		};
     	}
 		return cmd;
     }
@@ -54,7 +61,10 @@ public final class SessionContextManager {
     	var ses = activeContext(); //do not use requireActiveContext
     	if(nonNull(ses)) {
     		ses.threadCountUp();
-    		return ()-> callWithContext(ses, cmd::call, ses::threadCountDown);
+    		return ()-> {
+    			bindThread(ses);
+    			return callWithContext(ses, cmd::call, ses::threadCountDown);
+    		};
     	}
 		return cmd;
     }
@@ -63,17 +73,38 @@ public final class SessionContextManager {
     	var ses = activeContext(); //do not use requireActiveContext
     	if(nonNull(ses)) {
     		ses.threadCountUp();
-    		return ()-> callWithContext(ses, cmd::get, ses::threadCountDown);
+    		return ()-> {
+    			bindThread(ses);
+    			return callWithContext(ses, cmd::get, ses::threadCountDown);
+    		};
     	}
 		return cmd;
     }
 
+    static void bindThread(AbstractSessionUpdate ses) { //task start
+    	var thrd = currentThread();
+    	if(thrd.isVirtual()) {
+    		ses.getVirtualThreadCount().incrementAndGet(); //fan-out
+    		VirtualThreadMonitor.bind(thrd, ses);
+    	}
+    }
+
     public static void runWithContext(AbstractSessionUpdate ctx, Runnable cmd, Runnable finalize) {
     	callWithContext(ctx, ()-> { cmd.run(); return null;}, finalize);
     }
     
     public static <T, E extends Exception> T callWithContext(AbstractSessionUpdate ctx, SafeCallable<T, E> call, Runnable finalize) throws E {
     	var prv = activeContext();
+    	if(SCOPED && prv != ctx && !ctx.isStartup() && isNull(localTrace.get())) { //no thread state mutation
+    		try {
+    			return ScopedContext.callWhere(ctx, call);
+    		}
+    		finally {
+    			if(nonNull(finalize)) {
+    				finalize.run();
+    			}
+    		}
+    	}
 		if(prv != ctx) {
 			setActiveContext(ctx);
 		}
@@ -107,7 +138,10 @@ public final class SessionContextManager {
 
 	public static AbstractSessionUpdate activeContext() {
 		var trc = localTrace.get();
-		return nonNull(trc) ? trc : startupContext; // priority
+		if(isNull(trc) && SCOPED) {
+			trc = ScopedContext.current();
+		}
+		return nonNull(trc) ? trc : startupContext; // priority : thread local, scope, startup
 	}
 
 	public static void setActiveContext(AbstractSessionUpdate session) {
@@ -125,6 +159,9 @@ public final class SessionContextManager {
 			var prv = localTrace.get();
 			if(prv != session) {
 				localTrace.set(session);
+				if(currentThread().isVirtual()) { //i.e. virtual thread per request
+					VirtualThreadMonitor.bind(currentThread(), session);
+				}
 			}
 		}
 	}
@@ -157,6 +194,18 @@ public final class SessionContextManager {
 		}
 	}
 
+	public static boolean sampleSession(String key, Boolean upstream) { //upstream: caller decision, nullable
+		if(nonNull(upstream) && hub().getConfiguration().getTracing().getSampling().isHonourUpstream()) {
+			return upstream;
+		}
+		return hub().sample(key);
+	}
+
+	public static boolean unsampledContext() { //check before creating nested monitors
+		var ses = activeContext();
+		return nonNull(ses) && !ses.isSampled();
+	}
+
 	public static HttpSessionSignal createHttpSession(Instant start, String uuid) {
 		var ses = new HttpSessionSignal(requireNonNullElseGet(uuid, SessionContextManager::nextId), start, threadName());
 		ses.setLinked(nonNull(uuid));
@@ -227,16 +276,22 @@ public final class SessionContextManager {
 	}
 
 	private static void emitLog(Level lvl, String msg) {
-		var log = logEntry(lvl, msg); // no stack
 		var ctx = requireActiveContext();
+		if(nonNull(ctx) && !ctx.isSampled()) {
+			return;
+		}
+		var log = logEntry(lvl, msg); // no stack
 		if(nonNull(ctx)) {
 			log.setSessionId(ctx.getId());
 		}
 		hub().emitTrace(log);
 	}
 
-	public static String nextId() {
-		return randomUUID().toString();
+	public static String nextId() { //time-ordered UUID (v7 layout), SecureRandom free
+		var rnd = ThreadLocalRandom.current();
+		var msb = (currentTimeMillis() << 16) | 0x7000 | (rnd.nextInt() & 0xfff); //48bit timestamp, version, 12bit random
+		var lsb = (rnd.nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L; //variant, 62bit random
+		return new UUID(msb, lsb).toString();
 	}
 
 	static void reportNoActiveContext(String action) {
@@ -0,0 +1,26 @@
+package org.usf.inspect.core;
+
+import static com.fasterxml.jackson.dataformat.smile.SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES;
+import static org.usf.inspect.core.InspectConfiguration.binaryModule;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Smile classes are referenced here only : jackson-dataformat-smile is an optional (provided) dependency,
+ * this class is loaded if the SMILE format is configured.
+ * 
+ * @author u$f
+ *
+ */
+final class SmilePayload {
+	
+	private SmilePayload() {}
+
+	static ObjectMapper binaryMapper(ObjectMapper mapper) {
+		var factory = SmileFactory.builder()
+				.enable(CHECK_SHARED_STRING_VALUES) //back-references to repeated values : thread names, hosts, ids,..
+				.build();
+		return mapper.copyWith(factory).registerModule(binaryModule()); //instant as epoch-nanos
+	}
+}
@@ -1,5 +1,6 @@
 package org.usf.inspect.core;
 
+import static java.lang.Boolean.TRUE;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
@@ -13,6 +14,7 @@ import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
@@ -27,6 +29,17 @@ public final class SpelEvaluator {
 
 	private static final Map<String, Expression> EXPRESSION_CACHE = new ConcurrentHashMap<>();
 
+	public static boolean evalPredicate(String exprValue, Object root) { //read only
+		try {
+			var ext = EXPRESSION_CACHE.computeIfAbsent(exprValue, PARSER::parseExpression);
+			var ctx = SimpleEvaluationContext.forReadOnlyDataBinding().withRootObject(root).build();
+			return TRUE.equals(ext.getValue(ctx, Boolean.class));
+		} catch (Exception e) {
+			log.warn("Failed to evaluate SpEL predicate '{}': {}", exprValue, e.getMessage());
+		}
+		return false;
+	}
+
 	public static String evalMethodExpression(String exprValue, Object targetObject, Method method, Object[] args) {
 		if (isNull(exprValue)|| exprValue.isEmpty()) {
 			return method.getName();
@@ -0,0 +1,328 @@
+package org.usf.inspect.core;
+
+import static java.lang.Long.parseLong;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.Files.delete;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.list;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.nonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32C;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Segmented append-only log of trace batches, each segment is a fixed size memory-mapped file.
+ * Record : [length:int][crc32c:int][payload], a zero length marks the end of written data.
+ * The read cursor (segment, offset, skip) is mapped too, so a reopened log resumes where the replay stopped,
+ * skip : traces of the current record already dispatched (partial replay).
+ * Disk usage is bounded by max-size : the oldest segment is dropped when a new one is needed.
+ * The directory is locked (one process at a time), pending records of a previous run are replayed first.
+ *
+ * @author u$f
+ *
+ */
+@Slf4j
+final class SpillLog implements Closeable {
+
+	private static final TypeReference<List<EventTrace>> TRACES = new TypeReference<>() {};
+	private static final String EXT = ".seg";
+	private static final int HEADER = 8; //length + crc
+
+	private final Path dir;
+	private final FileLock lock;
+	private final int segmentSize;
+	private final int maxSegments;
+	private final ObjectWriter writer;
+	private final ObjectReader reader;
+	private final ArrayDeque<Long> segments = new ArrayDeque<>(); //oldest first
+	private MappedByteBuffer cursor; //[segment:long][offset:int][skip:int]
+	private MappedByteBuffer wbuf; //last segment
+	private ByteBuffer rbuf; //read segment
+	private long readSegment;
+	private int readOffset;
+	private int readSkip;
+
+	SpillLog(Path dir, ObjectMapper mapper, int segmentSize, long maxSize) throws IOException {
+		this.dir = dir;
+		this.segmentSize = segmentSize;
+		this.maxSegments = (int) Math.max(2, maxSize / segmentSize);
+		this.writer = mapper.writerFor(TRACES);
+		this.reader = mapper.copy().registerModule(new ParameterNamesModule()).readerFor(TRACES); //signal constructors
+		this.lock = lock(dir);
+		try {
+			open();
+		}
+		catch (IOException | RuntimeException e) {
+			lock.channel().close(); //release lock
+			throw e;
+		}
+		if(!isEmpty()) {
+			log.info("spill log {} contains pending traces, they will be replayed", dir);
+		}
+	}
+	
+	void open() throws IOException {
+		try(var s = list(dir)) {
+			s.map(p-> p.getFileName().toString())
+			.filter(fn-> fn.endsWith(EXT))
+			.map(fn-> parseLong(fn.substring(0, fn.length()-EXT.length())))
+			.sorted().forEach(segments::add);
+		}
+		try(var ch = FileChannel.open(dir.resolve("cursor"), CREATE, READ, WRITE)) {
+			this.cursor = ch.map(READ_WRITE, 0, 16); //zero skip if created by a previous version
+		}
+		if(segments.isEmpty()) {
+			roll();
+		}
+		else {
+			wbuf = map(segments.peekLast());
+			wbuf.position(recover(wbuf)); //skip truncated record
+		}
+		readSegment = cursor.getLong(0);
+		readOffset = cursor.getInt(8);
+		readSkip = cursor.getInt(12);
+		if(!segments.contains(readSegment)) {
+			moveCursor(segments.peekFirst(), 0);
+		}
+	}
+
+	/**
+	 * @return false if the batch cannot be written (too large, serialization error)
+	 */
+	public synchronized boolean append(List<EventTrace> traces) {
+		byte[] data;
+		try {
+			data = writer.writeValueAsBytes(traces);
+		} catch (IOException e) {
+			log.warn("cannot serialize {} traces, cause {} : {}", traces.size(), e.getClass().getSimpleName(), e.getMessage());
+			return false;
+		}
+		if(HEADER + data.length > segmentSize) {
+			log.warn("{} bytes batch exceeds spill segment size", data.length);
+			return false;
+		}
+		try {
+			if(wbuf.remaining() < HEADER + data.length) {
+				roll();
+			}
+		} catch (IOException e) {
+			log.warn("cannot create spill segment, cause {} : {}", e.getClass().getSimpleName(), e.getMessage());
+			return false;
+		}
+		var crc = new CRC32C();
+		crc.update(data);
+		var pos = wbuf.position();
+		wbuf.position(pos + HEADER);
+		wbuf.put(data);
+		if(wbuf.remaining() >= 4) {
+			wbuf.putInt(wbuf.position(), 0); //end marker, recovered segment may contain stale bytes
+		}
+		wbuf.putInt(pos + 4, (int) crc.getValue());
+		wbuf.putInt(pos, data.length); //publish
+		return true;
+	}
+
+	/**
+	 * Replays batches in order, the cursor moves forward only if the batch was dispatched.
+	 * 
+	 * @param dispatcher returns the unsent suffix of the batch (single lane), empty if dispatched
+	 * @return true if the log was entirely replayed
+	 */
+	public synchronized boolean replay(UnaryOperator<List<EventTrace>> dispatcher) {
+		var n = 0;
+		try {
+			while(true) {
+				var buf = readBuffer();
+				var len = readOffset + HEADER <= segmentSize ? buf.getInt(readOffset) : 0;
+				if(len <= 0 || readOffset + HEADER + len > segmentSize) { //end of segment
+					if(readSegment == segments.peekLast()) {
+						if(readOffset < wbuf.position()) { //corrupted length
+							log.warn("corrupted spill segment {}, {} bytes skipped", readSegment, wbuf.position() - readOffset);
+							moveCursor(readSegment, wbuf.position());
+							continue;
+						}
+						return true; //drained
+					}
+					deleteSegment(segments.pollFirst());
+					moveCursor(segments.peekFirst(), 0);
+					continue;
+				}
+				var data = new byte[len];
+				buf.get(readOffset + HEADER, data);
+				var crc = new CRC32C();
+				crc.update(data);
+				if((int) crc.getValue() == buf.getInt(readOffset + 4)) {
+					List<EventTrace> traces = decode(data);
+					if(nonNull(traces)) {
+						var skip = min(readSkip, traces.size()); //already dispatched
+						var rest = dispatcher.apply(skip > 0 ? traces.subList(skip, traces.size()) : traces);
+						if(!rest.isEmpty()) {
+							skipTraces(traces.size() - rest.size());
+							return false;
+						}
+					}
+					n++;
+				}
+				else {
+					log.warn("spill record checksum mismatch, {} bytes skipped", len);
+				}
+				moveCursor(readSegment, readOffset + HEADER + len);
+			}
+		}
+		finally {
+			if(n > 0) {
+				log.info("{} spilled batches were replayed", n);
+			}
+		}
+	}
+
+	public synchronized boolean isEmpty() {
+		return readSegment == segments.peekLast() && readOffset >= wbuf.position();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			if(isEmpty()) {
+				deleteSegment(segments.pollLast());
+				deleteIfExists(dir.resolve("cursor"));
+			}
+			else {
+				wbuf.force();
+				cursor.force();
+				log.warn("spill log is not empty, pending traces are kept in {}", dir);
+			}
+		}
+		finally {
+			lock.channel().close(); //release lock
+		}
+	}
+
+	static FileLock lock(Path dir) throws IOException {
+		var ch = FileChannel.open(dir.resolve("lock"), CREATE, WRITE);
+		try {
+			var lck = ch.tryLock();
+			if(nonNull(lck)) {
+				return lck;
+			}
+		}
+		catch (OverlappingFileLockException e) {
+			//locked by this process
+		}
+		ch.close();
+		throw new IOException("spill log " + dir + " is used by another process");
+	}
+
+	List<EventTrace> decode(byte[] data) {
+		try {
+			return reader.readValue(data);
+		} catch (IOException e) {
+			log.warn("cannot deserialize spilled traces, cause {} : {}", e.getClass().getSimpleName(), e.getMessage());
+			return null;
+		}
+	}
+
+	ByteBuffer readBuffer() {
+		if(readSegment == segments.peekLast()) {
+			return wbuf;
+		}
+		if(rbuf == null) {
+			try {
+				rbuf = map(readSegment);
+			} catch (IOException e) {
+				throw new DispatchException("cannot map spill segment " + readSegment, e);
+			}
+		}
+		return rbuf;
+	}
+
+	void roll() throws IOException {
+		var id = segments.isEmpty() ? 0 : segments.peekLast() + 1;
+		while(segments.size() >= maxSegments) { //bounded disk usage, drop oldest
+			var old = segments.pollFirst();
+			deleteSegment(old);
+			log.warn("spill log is full, oldest segment {} was dropped", old);
+			if(old == readSegment) {
+				moveCursor(segments.isEmpty() ? id : segments.peekFirst(), 0);
+			}
+		}
+		wbuf = map(id);
+		segments.add(id);
+	}
+
+	void moveCursor(long segment, int offset) {
+		if(segment != readSegment) {
+			rbuf = null;
+		}
+		readSegment = segment;
+		readOffset = offset;
+		cursor.putLong(0, segment);
+		cursor.putInt(8, offset);
+		skipTraces(0);
+	}
+
+	void skipTraces(int n) {
+		readSkip = n;
+		cursor.putInt(12, n);
+	}
+
+	void deleteSegment(long id) {
+		try {
+			delete(segmentPath(id));
+		} catch (IOException e) {
+			log.warn("cannot delete spill segment {}", id, e);
+		}
+	}
+
+	MappedByteBuffer map(long id) throws IOException {
+		try(var ch = FileChannel.open(segmentPath(id), CREATE, READ, WRITE)) {
+			return ch.map(READ_WRITE, 0, segmentSize); //zero filled
+		}
+	}
+
+	Path segmentPath(long id) {
+		return dir.resolve(format("%020d", id) + EXT);
+	}
+
+	static int recover(ByteBuffer buf) { //last valid record
+		var pos = 0;
+		while(pos + HEADER <= buf.capacity()) {
+			var len = buf.getInt(pos);
+			if(len <= 0 || pos + HEADER + len > buf.capacity()) {
+				break;
+			}
+			var data = new byte[len];
+			buf.get(pos + HEADER, data);
+			var crc = new CRC32C();
+			crc.update(data);
+			if((int) crc.getValue() != buf.getInt(pos + 4)) {
+				break;
+			}
+			pos += HEADER + len;
+		}
+		return pos;
+	}
+}
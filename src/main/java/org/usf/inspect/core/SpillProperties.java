@@ -0,0 +1,29 @@
+package org.usf.inspect.core;
+
+import static org.usf.inspect.core.Assertions.assertGreaterOrEquals;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+@Getter
+@Setter
+@ToString
+public final class SpillProperties {
+
+	private boolean enabled = false;
+	private int segmentSize = 8 * 1024 * 1024; // bytes, memory-mapped segment
+	private long maxSize = 256 * 1024 * 1024; // bytes, oldest segments are dropped when exceeded
+	
+	void validate() {
+		if(enabled) {
+			assertGreaterOrEquals(segmentSize, 64 * 1024, "segment-size");
+			assertGreaterOrEquals(maxSize, 2L * segmentSize, "max-size");
+		}
+	}
+}
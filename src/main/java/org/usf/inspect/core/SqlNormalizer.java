@@ -0,0 +1,245 @@
+package org.usf.inspect.core;
+
+import static java.lang.Character.isDigit;
+import static java.lang.Character.isLetterOrDigit;
+import static java.lang.Character.toUpperCase;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static org.usf.inspect.core.DatabaseCommand.isWhitespacePlus;
+import static org.usf.inspect.core.DatabaseCommand.skipComment;
+
+import java.util.Set;
+
+/**
+ * Single pass SQL normalizer : literals & parameters are replaced by '?', comments are removed,
+ * IN lists are collapsed and tokens are re-spaced, so that the same query always produces the same text.
+ * Words (keywords & unquoted identifiers) are upper cased, quoted identifiers are kept as is.
+ *
+ * @author u$f
+ *
+ */
+public final class SqlNormalizer {
+
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+	private static final String OPERATORS = "<>=!|+-*/%&^~:";
+	private static final Set<String> KEYWORDS = Set.of( //followed by an operand
+			"SELECT", "WHERE", "AND", "OR", "NOT", "ON", "HAVING", "SET", "VALUES", "IN", "IS", "LIKE", "BETWEEN", 
+			"CASE", "WHEN", "THEN", "ELSE", "RETURN", "LIMIT", "OFFSET", "BY", "DEFAULT");
+
+	private SqlNormalizer() {}
+
+	/**
+	 * @param maxLength normalized text max length, 0: fingerprint only
+	 */
+	public static NormalizedQuery normalize(String sql, int maxLength) {
+		var len = sql.length();
+		var sb = new StringBuilder(min(len, 1024));
+		var inList = -1; //IN list start
+		var prevIn = false; //last token is IN
+		var i = 0;
+		while(i < len) {
+			var j = skipComments(sql, i);
+			if(j > i || isWhitespacePlus(sql.charAt(i))) {
+				i = max(j, i+1);
+				continue;
+			}
+			var c = sql.charAt(i);
+			var start = sb.length();
+			if(c == '\'' || (c == '$' && i+1 < len && sql.charAt(i+1) == '$')) { //string literal
+				i = c == '\'' ? skipString(sql, i) : skipDollarString(sql, i);
+				append(sb, "?");
+			}
+			else if(c == '?' || (c == '$' && i+1 < len && isDigit(sql.charAt(i+1)))) { //JDBC, PG parameter
+				i = skipWord(sql, i+1);
+				append(sb, "?");
+			}
+			else if(c == ':' && i+1 < len && isWordStart(sql.charAt(i+1)) && (i == 0 || sql.charAt(i-1) != ':')) { //named parameter
+				i = skipWord(sql, i+1);
+				append(sb, "?");
+			}
+			else if(isDigit(c) || (c == '.' && i+1 < len && isDigit(sql.charAt(i+1)))) { //number
+				i = skipNumber(sql, i);
+				append(sb, "?");
+			}
+			else if(c == '"' || c == '`' || c == '[') { //quoted identifier
+				var end = sql.indexOf(c == '[' ? ']' : c, i+1);
+				end = end < 0 ? len : end+1;
+				append(sb, sql.substring(i, end));
+				i = end;
+			}
+			else if(isWordStart(c)) {
+				var end = skipWord(sql, i);
+				space(sb);
+				for(var k=i; k<end; k++) {
+					sb.append(toUpperCase(sql.charAt(k)));
+				}
+				i = end;
+			}
+			else if(OPERATORS.indexOf(c) > -1) {
+				var end = i+1;
+				while(end < len && OPERATORS.indexOf(sql.charAt(end)) > -1 && skipComments(sql, end) == end) {
+					end++;
+				}
+				var sign = isSign(sql.charAt(end-1)) && isNumberStart(sql, end) && (end-i > 1 || operandExpected(sb)); //unary sign : folded into the number
+				if(!sign || end-i > 1) {
+					append(sb, sql.substring(i, sign ? end-1 : end));
+				}
+				i = end;
+			}
+			else { //punctuation
+				if(c == ')' && inList > -1 && onlyParameters(sb, inList)) {
+					sb.setLength(inList);
+					sb.append('?');
+				}
+				if(c == ',' || c == ')' || c == '(' || c == '.' || c == ';') {
+					sb.append(c); //no space before
+				}
+				else {
+					append(sb, String.valueOf(c));
+				}
+				i++;
+			}
+			var tkn = sb.length() - start;
+			if(c == '(') {
+				inList = prevIn ? sb.length() : -1;
+			}
+			else if(c == ')' || (tkn > 0 && sb.charAt(sb.length()-1) != '?' && c != ',')) {
+				inList = -1;
+			}
+			prevIn = tkn > 0 && endsWithWord(sb, "IN");
+		}
+		var hash = FNV_OFFSET;
+		for(var k=0; k<sb.length(); k++) {
+			hash = (hash ^ sb.charAt(k)) * FNV_PRIME;
+		}
+		return new NormalizedQuery(hash, format("%016x", hash), maxLength > 0 ? sb.substring(0, min(sb.length(), maxLength)) : null);
+	}
+
+	static void append(StringBuilder sb, String token) {
+		space(sb);
+		sb.append(token);
+	}
+
+	static void space(StringBuilder sb) {
+		if(!sb.isEmpty()) {
+			var c = sb.charAt(sb.length()-1);
+			if(c != '(' && c != '.') {
+				sb.append(' ');
+			}
+		}
+	}
+
+	static boolean isSign(char c) {
+		return c == '-' || c == '+';
+	}
+
+	static boolean isNumberStart(String s, int idx) {
+		return idx < s.length() && (isDigit(s.charAt(idx)) || (s.charAt(idx) == '.' && idx+1 < s.length() && isDigit(s.charAt(idx+1))));
+	}
+
+	static boolean operandExpected(StringBuilder sb) { //previous token : operator, '(', ',' or keyword
+		if(sb.isEmpty()) {
+			return true;
+		}
+		var c = sb.charAt(sb.length()-1);
+		if(c == '(' || c == ',' || OPERATORS.indexOf(c) > -1) {
+			return true;
+		}
+		var n = sb.length();
+		while(n > 0 && isWordPart(sb.charAt(n-1))) {
+			n--;
+		}
+		return n < sb.length() && KEYWORDS.contains(sb.substring(n));
+	}
+
+	static boolean onlyParameters(StringBuilder sb, int from) {
+		for(var k=from; k<sb.length(); k++) {
+			var c = sb.charAt(k);
+			if(c != '?' && c != ',' && c != ' ') {
+				return false;
+			}
+		}
+		return from < sb.length();
+	}
+
+	static boolean endsWithWord(StringBuilder sb, String word) {
+		var n = sb.length() - word.length();
+		return n >= 0 && sb.indexOf(word, n) == n && (n == 0 || sb.charAt(n-1) == ' ');
+	}
+
+	static int skipComments(String s, int idx) {
+		int i;
+		do {
+			i = idx;
+			idx = skipComment(s, idx); // --
+			if(idx+1 < s.length() && s.charAt(idx) == '/' && s.charAt(idx+1) == '*') {
+				var end = s.indexOf("*/", idx+2);
+				idx = end < 0 ? s.length() : end+2;
+			}
+		} while(idx > i);
+		return idx;
+	}
+
+	static int skipString(String s, int idx) { //see DatabaseCommand.nextChar
+		var len = s.length();
+		while(++idx < len) {
+			var c = s.charAt(idx);
+			if(c == '\\' && idx+1 < len) {
+				++idx; //skip escaped char
+			}
+			else if(c == '\'') {
+				if(idx+1 < len && s.charAt(idx+1) == '\'') {
+					++idx; //skip escaped quote
+				}
+				else {
+					return idx+1;
+				}
+			}
+		}
+		return len;
+	}
+
+	static int skipDollarString(String s, int idx) {
+		var end = s.indexOf("$$", idx+2);
+		return end < 0 ? s.length() : end+2;
+	}
+
+	static int skipNumber(String s, int idx) {
+		var len = s.length();
+		while(++idx < len) {
+			var c = s.charAt(idx);
+			if((c == '+' || c == '-') && (s.charAt(idx-1) == 'e' || s.charAt(idx-1) == 'E')) {
+				continue; //exponent
+			}
+			if(!isLetterOrDigit(c) && c != '.' && c != '_') { //decimal, hex
+				break;
+			}
+		}
+		return idx;
+	}
+
+	static int skipWord(String s, int idx) {
+		var len = s.length();
+		while(idx < len && isWordPart(s.charAt(idx))) {
+			idx++;
+		}
+		return idx;
+	}
+
+	static boolean isWordStart(char c) {
+		return Character.isLetter(c) || c == '_' || c == '@' || c == '#';
+	}
+
+	static boolean isWordPart(char c) {
+		return isLetterOrDigit(c) || c == '_' || c == '$' || c == '@' || c == '#';
+	}
+
+	/**
+	 * @param hash 64-bit FNV-1a of the full normalized text
+	 * @param fingerprint hex hash
+	 * @param text normalized text, capped, nullable
+	 */
+	public record NormalizedQuery(long hash, String fingerprint, String text) { }
+}
@@ -0,0 +1,42 @@
+package org.usf.inspect.core;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Repeated stages folded into one, durations in nanoseconds.
+ * 
+ * @author u$f
+ *
+ */
+@Getter
+@Setter
+@ToString
+public final class StageAggregate {
+
+	private int count;
+	private long totalDuration;
+	private long minDuration;
+	private long maxDuration;
+	
+	public static StageAggregate of(long duration) {
+		var agg = new StageAggregate();
+		agg.count = 1;
+		agg.totalDuration = duration;
+		agg.minDuration = duration;
+		agg.maxDuration = duration;
+		return agg;
+	}
+	
+	public void append(long duration) {
+		count++;
+		totalDuration += duration;
+		if(duration < minDuration) {
+			minDuration = duration;
+		}
+		if(duration > maxDuration) {
+			maxDuration = duration;
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package org.usf.inspect.core;
+
+import static java.util.Objects.isNull;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Pooled stages of one request, recorded as primitive columns (struct-of-arrays) : no stage, {@link java.time.Instant}
+ * or count array allocation on the monitored thread. Rows are written as regular stages on serialization,
+ * through a single reused (flyweight) stage instance, so the wire format is unchanged.
+ *
+ * @author u$f
+ *
+ */
+@JsonSerialize(using = StageArena.ArenaSerializer.class)
+public final class StageArena implements EventTrace {
+
+	static final int CAPACITY = 32; //rows per chunk
+
+	private final String requestId;
+	private final MonotonicClock clock;
+	private final Supplier<? extends AbstractStage> factory;
+	private final Enum<?>[] type = new Enum<?>[CAPACITY];
+	private final long[] start = new long[CAPACITY];
+	private final long[] end = new long[CAPACITY];
+	private final long[] count = new long[CAPACITY]; //-1 : no count
+	private final int[] order = new int[CAPACITY];
+	private int size;
+
+	StageArena(String requestId, MonotonicClock clock, Supplier<? extends AbstractStage> factory) {
+		this.requestId = requestId;
+		this.clock = clock;
+		this.factory = factory;
+	}
+
+	/**
+	 * @return false if the arena is full or the stage was measured against another clock
+	 */
+	boolean add(MonotonicClock clock, Enum<?> type, long start, long end, long count, int order) {
+		if(size == CAPACITY || this.clock != clock) {
+			return false;
+		}
+		this.type[size] = type;
+		this.start[size] = start;
+		this.end[size] = end;
+		this.count[size] = count;
+		this.order[size] = order;
+		size++;
+		return true;
+	}
+
+	public String getRequestId() {
+		return requestId;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	boolean isFull() {
+		return size == CAPACITY;
+	}
+
+	public AbstractStage stage(int i) {
+		return stage(i, factory.get());
+	}
+
+	AbstractStage stage(int i, AbstractStage stg) { //reset every field, stg may be reused
+		if(i >= size) {
+			throw new IndexOutOfBoundsException(i);
+		}
+		stg.setName(type[i].name());
+		stg.setPeriod(clock, start[i], end[i]);
+		stg.setCommand(null);
+		stg.setException(null);
+		stg.setRequestId(requestId);
+		stg.setOrder(order[i]);
+		if(stg instanceof DatabaseRequestStage db) {
+			db.setCount(count[i] < 0 ? null : new long[] {count[i]});
+			db.setArgs(null);
+			db.setAggregate(null);
+			db.setFingerprint(null);
+			db.setQuery(null);
+			db.setBatch(null);
+			db.setFetch(null);
+		}
+		return stg;
+	}
+
+	@Override
+	public String toString() {
+		return "StageArena{requestId=" + requestId + ", size=" + size + "}";
+	}
+
+	static final class ArenaSerializer extends StdSerializer<StageArena> {
+
+		private static final long serialVersionUID = 1L;
+
+		ArenaSerializer() {
+			super(StageArena.class);
+		}
+
+		@Override
+		public void serialize(StageArena arena, JsonGenerator gen, SerializerProvider provider) throws IOException {
+			if(arena.size > 0) {
+				var stg = arena.factory.get(); //flyweight
+				var ser = provider.findTypedValueSerializer(stg.getClass(), true, null); //with @type
+				for(var i=0; i<arena.size; i++) {
+					ser.serialize(arena.stage(i, stg), gen, provider);
+				}
+			}
+		}
+
+		@Override
+		public void serializeWithType(StageArena arena, JsonGenerator gen, SerializerProvider provider, TypeSerializer typeSer) throws IOException {
+			serialize(arena, gen, provider); //one typed value per row, not the arena itself
+		}
+
+		@Override
+		public boolean isEmpty(SerializerProvider provider, StageArena arena) {
+			return isNull(arena) || arena.size == 0;
+		}
+	}
+}
@@ -0,0 +1,273 @@
+package org.usf.inspect.core;
+
+import static java.time.Duration.between;
+import static java.util.Arrays.sort;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.usf.inspect.core.SpelEvaluator.evalPredicate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tail-based sampling: session traces are staged until the session ends, then kept (enqueued) or dropped. 
+ * Each staged session is locked on its own, keep rules are evaluated outside any lock.
+ * Open sessions are bounded (LRU, map operations only are locked), evicted or overflowing sessions are kept.
+ * Staged traces are admitted like queued ones (see {@link #staged()}).
+ * 
+ * @author u$f
+ *
+ */
+@Slf4j
+final class TailSampler {
+	
+	static final int RESERVOIR_SIZE = 1024; //last session latencies
+	static final int REFRESH_RATE = 128; //percentile refresh
+	
+	private final TailSamplingProperties properties;
+	private final LinkedHashMap<String, Staging> sessions = new LinkedHashMap<>(16, .75f, true); //LRU, guarded by itself
+	private final Map<String, Staging> requests = new ConcurrentHashMap<>();
+	private final Map<String, Boolean> rejected; //session & request ids, late traces
+	private final AtomicInteger staged = new AtomicInteger();
+	private final long[] latencies = new long[RESERVOIR_SIZE];
+	private long count; //guarded by latencies
+	private volatile long threshold; //0 : warm-up
+	
+	TailSampler(TailSamplingProperties properties) {
+		this.properties = properties;
+		var max = properties.getMaxSessions() * 10;
+		this.rejected = new LinkedHashMap<>(16, .75f, false) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+				return size() > max;
+			}
+		};
+	}
+
+	/**
+	 * @param admit staging admission, traces are dropped if rejected
+	 * @param next  kept traces consumer
+	 * @return true if the trace was staged or enqueued
+	 */
+	boolean emit(EventTrace trace, Predicate<EventTrace> admit, Predicate<EventTrace> next) {
+		if(trace instanceof AbstractSessionSignal s) {
+			if(admit.test(s)) {
+				open(s);
+				evictIfFull(next);
+				return true;
+			}
+			return false;
+		}
+		if(trace instanceof AbstractSessionUpdate u) {
+			var stg = session(u.getId()); //still staged while evaluating rules
+			return nonNull(stg) ? close(stg, u, next) : pass(u.getId(), trace, next);
+		}
+		var id = sessionKey(trace);
+		if(isNull(id)) {
+			return next.test(trace); //no session
+		}
+		var stg = session(id);
+		if(isNull(stg)) {
+			stg = requests.get(id);
+			if(nonNull(stg)) {
+				session(stg.id); //touch
+			}
+		}
+		if(nonNull(stg)) {
+			List<EventTrace> traces = null;
+			synchronized (stg) {
+				if(isNull(stg.kept)) { //still open
+					if(!admit.test(trace)) {
+						return false;
+					}
+					if(trace instanceof AbstractRequestSignal r) {
+						requests.put(r.getId(), stg);
+						stg.requestIds.add(r.getId());
+					}
+					stg.traces.add(trace);
+					staged.incrementAndGet();
+					if(stg.traces.size() < properties.getMaxTracesPerSession()) {
+						return true;
+					}
+					log.debug("session {} exceeded {} staged traces, it will be kept", stg.id, properties.getMaxTracesPerSession());
+					traces = release(stg, true);
+				}
+				else if(!stg.kept) {
+					return false; //closed concurrently
+				}
+			}
+			if(isNull(traces)) {
+				return next.test(trace); //kept concurrently
+			}
+			traces.forEach(next::test);
+			return true;
+		}
+		return pass(id, trace, next);
+	}
+	
+	void open(AbstractSessionSignal s) {
+		var stg = new Staging(s.getId(), s.getStart());
+		stg.traces.add(s);
+		staged.incrementAndGet();
+		synchronized (sessions) {
+			sessions.put(s.getId(), stg);
+		}
+	}
+	
+	void evictIfFull(Predicate<EventTrace> next) {
+		Staging stg;
+		while(nonNull(stg = eldest())) {
+			log.debug("tail sampling: too many open sessions, session {} will be kept", stg.id);
+			List<EventTrace> traces;
+			synchronized (stg) {
+				if(nonNull(stg.kept)) {
+					continue; //closed concurrently
+				}
+				traces = release(stg, true);
+			}
+			traces.forEach(next::test);
+		}
+	}
+	
+	Staging session(String id) {
+		synchronized (sessions) {
+			return sessions.get(id); //access order
+		}
+	}
+	
+	Staging eldest() { //least recently used, removed
+		synchronized (sessions) {
+			if(sessions.size() > properties.getMaxSessions()) {
+				var it = sessions.values().iterator();
+				var stg = it.next();
+				it.remove();
+				return stg;
+			}
+			return null;
+		}
+	}
+	
+	boolean close(Staging stg, AbstractSessionUpdate ses, Predicate<EventTrace> next) {
+		var keep = keep(ses, stg.start); //outside lock
+		List<EventTrace> traces;
+		synchronized (stg) {
+			if(nonNull(stg.kept)) { //flushed concurrently
+				return next.test(ses);
+			}
+			if(!keep) {
+				synchronized (rejected) {
+					rejected.put(stg.id, true);
+					stg.requestIds.forEach(r-> rejected.put(r, true));
+				}
+			}
+			traces = release(stg, keep);
+		}
+		if(keep) {
+			traces.forEach(next::test);
+			return next.test(ses);
+		}
+		return false;
+	}
+
+	List<EventTrace> release(Staging stg, boolean keep) { //guarded by stg
+		synchronized (sessions) {
+			sessions.remove(stg.id, stg);
+		}
+		stg.requestIds.forEach(requests::remove);
+		stg.kept = keep;
+		var traces = stg.traces;
+		stg.traces = null;
+		staged.addAndGet(-traces.size()); //before enqueue
+		return traces;
+	}
+	
+	boolean pass(String id, EventTrace trace, Predicate<EventTrace> next) {
+		synchronized (rejected) {
+			if(rejected.containsKey(id)) {
+				return false; //drop late traces of rejected sessions
+			}
+		}
+		return next.test(trace);
+	}
+	
+	boolean keep(AbstractSessionUpdate ses, Instant start) {
+		if(properties.isKeepErrors() && nonNull(ses.getException())) {
+			return true;
+		}
+		if(properties.getMinStatus() > 0 && ses instanceof HttpSessionUpdate h && h.getStatus() >= properties.getMinStatus()) {
+			return true;
+		}
+		if(nonNull(properties.getCondition()) && evalPredicate(properties.getCondition(), ses)) {
+			return true;
+		}
+		start = nonNull(ses.getStart()) ? ses.getStart() : start;
+		return nonNull(start) && nonNull(ses.getEnd()) && slow(between(start, ses.getEnd()).toNanos());
+	}
+	
+	boolean slow(long latency) {
+		long[] arr = null;
+		synchronized (latencies) {
+			latencies[(int) (count++ % RESERVOIR_SIZE)] = latency;
+			if(count % REFRESH_RATE == 0) {
+				arr = new long[(int) Math.min(count, RESERVOIR_SIZE)];
+				System.arraycopy(latencies, 0, arr, 0, arr.length);
+			}
+		}
+		if(nonNull(arr)) { //sort outside lock
+			sort(arr);
+			threshold = arr[(int) (properties.getLatencyPercentile() * (arr.length-1))];
+		}
+		return latency >= threshold;
+	}
+	
+	/**
+	 * @return staged traces count, must be added to queue size on admission
+	 */
+	int staged() {
+		return staged.get();
+	}
+
+	static String sessionKey(EventTrace trace) { //session or request id
+		if(trace instanceof AbstractRequestSignal r) {
+			return r.getSessionId();
+		}
+		if(trace instanceof AbstractRequestUpdate r) {
+			return r.getId();
+		}
+		if(trace instanceof AbstractStage s) {
+			return s.getRequestId(); //session id for session stages
+		}
+		if(trace instanceof StageArena a) {
+			return a.getRequestId();
+		}
+		if(trace instanceof SessionMaskUpdate m) {
+			return m.getId();
+		}
+		if(trace instanceof LogEntry l) {
+			return l.getSessionId();
+		}
+		return null;
+	}
+
+	static final class Staging {
+		
+		private final String id;
+		private final Instant start;
+		private final List<String> requestIds = new ArrayList<>();
+		private List<EventTrace> traces = new ArrayList<>(); //null once released
+		private Boolean kept; //null while open
+		
+		Staging(String id, Instant start) {
+			this.id = id;
+			this.start = start;
+		}
+	}
+}
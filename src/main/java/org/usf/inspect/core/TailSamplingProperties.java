@@ -0,0 +1,36 @@
+package org.usf.inspect.core;
+
+import static org.usf.inspect.core.Assertions.assertBetween;
+import static org.usf.inspect.core.Assertions.assertGreaterOrEquals;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+@Getter
+@Setter
+@ToString
+public final class TailSamplingProperties {
+
+	private boolean enabled = false;
+	private int maxSessions = 1_000; // open sessions staged in memory (LRU), evicted sessions are kept
+	private int maxTracesPerSession = 1_000; // staged traces per session, the session is kept when exceeded
+	private double latencyPercentile = .99; // keep sessions slower than the observed percentile
+	private int minStatus = 500; // keep HTTP sessions with status >= min-status, 0: disabled
+	private boolean keepErrors = true; // keep sessions with exception
+	private String condition; // SpEL predicate on the session (root object), e.g. "name == 'checkout'"
+	
+	void validate() {
+		if(enabled) {
+			assertGreaterOrEquals(maxSessions, 1, "max-sessions");
+			assertGreaterOrEquals(maxTracesPerSession, 1, "max-traces-per-session");
+			assertBetween(latencyPercentile, 0., 1., "latency-percentile");
+			assertGreaterOrEquals(minStatus, 0, "min-status");
+		}
+	}
+}
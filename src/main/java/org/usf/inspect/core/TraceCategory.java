@@ -0,0 +1,32 @@
+package org.usf.inspect.core;
+
+/**
+ * 
+ * Trace categories, used to shed traces when the queue capacity is exceeded (see {@link TracingProperties#getOverflowPriority()}).
+ * 
+ * @author u$f
+ *
+ */
+public enum TraceCategory {
+
+	STAGE, RESOURCE, MASK, LOG, REQUEST, SESSION;
+
+	public static TraceCategory of(EventTrace trace) {
+		if(trace instanceof AbstractStage || trace instanceof StageArena) {
+			return STAGE;
+		}
+		if(trace instanceof MachineResourceUsage || trace instanceof ConnectionPoolUsage) {
+			return RESOURCE;
+		}
+		if(trace instanceof SessionMaskUpdate) {
+			return MASK;
+		}
+		if(trace instanceof LogEntry || trace instanceof QueryPatternReport) {
+			return LOG;
+		}
+		if(trace instanceof AbstractRequestSignal || trace instanceof AbstractRequestUpdate) {
+			return REQUEST;
+		}
+		return SESSION; //sessions & unknown traces
+	}
+}
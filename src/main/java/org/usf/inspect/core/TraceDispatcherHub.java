@@ -2,6 +2,7 @@ package org.usf.inspect.core;
 
 import static java.lang.Runtime.getRuntime;
 import static java.lang.Thread.currentThread;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.synchronizedList;
 import static java.util.Collections.unmodifiableList;
 import static java.util.Objects.isNull;
@@ -16,10 +17,12 @@ import static org.usf.inspect.core.DumpProperties.createDirs;
 import static org.usf.inspect.core.Helper.threadName;
 import static org.usf.inspect.core.LogEntry.logEntry;
 import static org.usf.inspect.core.LogEntry.Level.REPORT;
+import static org.usf.inspect.core.Sampler.sampler;
 import static org.usf.inspect.core.SessionContextManager.nextId;
 import static org.usf.inspect.core.StackTraceRow.exceptionStackTraceRows;
 import static org.usf.inspect.core.TraceExporter.noExporter;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
@@ -40,6 +43,7 @@ import lombok.extern.slf4j.Slf4j;
 public final class TraceDispatcherHub implements TraceHub {
 
 	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger(0);
+	private static final int MAX_SPILL_DIRS = 8; //instances sharing the same dump location
 	private final ScheduledExecutorService executor = newSingleThreadScheduledExecutor(TraceDispatcherHub::daemonThread);
 	
 	private static TraceHub singleton;
@@ -48,18 +52,33 @@ public final class TraceDispatcherHub implements TraceHub {
 	private final InspectCollectorConfiguration configuration;
 	private final AtomicReference<DispatchState> atomicState;
 	private final TraceExporter agent;
+	private final DispatchPipeline pipeline;
 	private final EventTraceBus eventBus;
-	private final ProcessingQueue<EventTrace> queue = new ProcessingQueue<>();
+	private final ProcessingQueue<EventTrace> queue;
+	private final OverflowPolicy overflow;
+	private final Sampler sampler;
+	private final TailSampler tail; //nullable
+	private final SpillLog spill; //nullable
 	private final List<DispatchTask> tasks = synchronizedList(new ArrayList<>());
 	
 	private volatile boolean dispatchNow;
 	
 	TraceDispatcherHub(InspectCollectorConfiguration configuration, TraceExporter agent, EventTraceBus eventBus) {
+		this(configuration, agent, eventBus, null);
+	}
+	
+	TraceDispatcherHub(InspectCollectorConfiguration configuration, TraceExporter agent, EventTraceBus eventBus, SpillLog spill) {
 		if(configuration.isEnabled()) {
 			this.configuration = configuration;
 			this.atomicState = new AtomicReference<>(configuration.getScheduling().getState());
 			this.agent = agent;
+			this.pipeline = new DispatchPipeline(agent, configuration.getTracing().getBatchSize(), configuration.getTracing().getMaxInFlight());
 			this.eventBus = eventBus;
+			this.queue = new ProcessingQueue<>(configuration.getTracing().getQueueCapacity()); //pre-sized ring buffer
+			this.overflow = new OverflowPolicy(configuration.getTracing().getQueueCapacity(), configuration.getTracing().getOverflowPriority());
+			this.sampler = sampler(configuration.getTracing().getSampling());
+			this.spill = spill;
+			this.tail = configuration.getTracing().getTailSampling().isEnabled() ? new TailSampler(configuration.getTracing().getTailSampling()) : null;
 			var delay = configuration.getScheduling().getInterval().getSeconds(); //delay >= 10s
 			this.executor.scheduleWithFixedDelay(this::schedule, delay, delay, SECONDS);
 			getRuntime().addShutdownHook(new Thread(this::shutdown, "shutdown-hook"));
@@ -76,7 +95,7 @@ public final class TraceDispatcherHub implements TraceHub {
 	
 	@Override
 	public boolean emitTrace(EventTrace trace) {
-		if(scheduling() && atomicState.get().canCollect() && queue.add(trace)) {
+		if(scheduling() && atomicState.get().canCollect() && stageOrEnqueue(trace)) {
 			tryDispatchIfQueueFull();
 			return true;
 		}
@@ -85,9 +104,40 @@ public final class TraceDispatcherHub implements TraceHub {
 	
 	@Override
 	public boolean emitTraces(List<EventTrace> traces) { //server usage
-		if(scheduling() && atomicState.get().canCollect() && queue.addAll(traces)) {
-			tryDispatchIfQueueFull();
-			return true;
+		if(scheduling() && atomicState.get().canCollect()) {
+			var n = 0;
+			for(var t : traces) {
+				if(stageOrEnqueue(t)) {
+					n++;
+				}
+			}
+			if(n > 0) {
+				tryDispatchIfQueueFull();
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	@Override
+	public boolean sample(String key) {
+		return sampler.sample(key);
+	}
+	
+	boolean stageOrEnqueue(EventTrace trace) { //traces of rejected sessions never reach the queue
+		return nonNull(tail) ? tail.emit(trace, this::admit, this::enqueue) : enqueue(trace);
+	}
+	
+	boolean admit(EventTrace trace) { //staged traces count against queue capacity
+		return overflow.admit(trace, nonNull(tail) ? queue.size() + tail.staged() : queue.size());
+	}
+	
+	boolean enqueue(EventTrace trace) { //shed low priority traces on emit
+		if(admit(trace)) {
+			if(queue.add(trace)) {
+				return true;
+			}
+			overflow.reject(trace); //queue is full
 		}
 		return false;
 	}
@@ -132,7 +182,7 @@ public final class TraceDispatcherHub implements TraceHub {
 			var arr = stack && configuration.isDebugMode() 
 					? exceptionStackTraceRows(requireNonNullElseGet(cause, Exception::new), -1) 
 					: null;
-			queue.add(logEntry(REPORT, msg, arr)); //do not use emitTrace to avoid call hooks 
+			enqueue(logEntry(REPORT, msg, arr)); //do not use emitTrace to avoid call hooks 
 		}
 		if(configuration.isDebugMode()) {
 			log.debug(msg, cause);			
@@ -170,8 +220,11 @@ public final class TraceDispatcherHub implements TraceHub {
 					mergeSessionMaskUpdates(snp);
 					var trc = snp;
 					eventBus.triggerTraceDispatch(this, unmodifiableList(trc));
+					if(nonNull(spill) && !spill.replay(pipeline::dispatchInOrder)) { //collector still unreachable, keep order
+						return spill(trc);
+					}
 					log.trace("dispatching {} traces ..", trc.size());
-					trc = agent.dispatch(shutdown, trc);
+					trc = pipeline.dispatch(shutdown, trc); //requeue failed batches only
 					if(trc.isEmpty()) {
 						log.trace("successfully dispatched {} items", snp.size());
 					}
@@ -181,73 +234,23 @@ public final class TraceDispatcherHub implements TraceHub {
 					else {
 						log.warn("failed to dispatch {} traces", trc.size());
 					}
-					return trc;
+					return nonNull(spill) ? spill(trc) : trc;
 				});
 			}
 		} catch (Exception e) { 
 			warnException(e, "failed to dispatch traces");
 		}
 		finally {
-			try {
-				removeIfCapacityExceeded(); // even not dispatched
-			}
-			catch (Exception e) {
-				warnException(e, "failed to remove traces as capacity exceeded");
-			}
+			overflow.logRejectedTraces();
 		}
 	}
-	
-	void removeIfCapacityExceeded() {
-		var max = configuration.getTracing().getQueueCapacity();
-		if(queue.size() > max) {
-			log.warn("queue capacity exceeded, removing traces ..");
-			queue.pollAll(snp->{
-				try {
-					var i=0;
-					var arr = new Class[] {AbstractStage.class, MachineResourceUsage.class, SessionMaskUpdate.class, LogEntry.class};
-					do {
-						removeInstanceOf(snp, arr[i]);
-					} while(++i<arr.length && snp.size() > max);
-					if(snp.size() > max) {
-						removeInstanceOf(snp, AbstractRequestSignal.class, AbstractRequestUpdate.class);
-					}
-					if(snp.size() > max) {
-						removeInstanceOf(snp, AbstractSessionSignal.class, AbstractSessionUpdate.class);
-					}
-				}
-				finally {
-					if(snp.size() > max) {
-						log.warn("still {} traces cannot be removed, clearing all the queue", snp.size());
-						snp.clear();
-						queue.setWaste(true); //disable further adding, avoid dispatch callback without initializer
-					}
-				}
-				return snp;
-			});
-		}
-	}
-	
-	static void removeInstanceOf(List<?> traces, Class<?> type) {
-		var size = traces.size();
-		traces.removeIf(type::isInstance);
-		if(size > traces.size()) {
-			log.warn("removed {} traces of type {}", size-traces.size(), type.getSimpleName());
-		}
-	}
-	
-	static void removeInstanceOf(List<?> traces, Class<? extends TraceSignal> signalType, Class<? extends TraceUpdate> updateType) {
-		var size = traces.size();
-		var call = traces.stream().<TraceUpdate>mapMulti((t,acc)->{
-					if(updateType.isInstance(t)) {
-						acc.accept(updateType.cast(t));
-					}
-				})
-				.collect(toMap(TraceUpdate::getId, identity()));
-		traces.removeIf(t-> signalType.isInstance(t) && call.containsKey(signalType.cast(t).getId()));
-		traces.removeAll(call.values()); //remove callbacks after their initializers
-		if(size > traces.size()) {
-			log.warn("removed {} traces of type {}/{}", size-traces.size(), signalType.getSimpleName(), updateType.getSimpleName());
+
+	List<EventTrace> spill(List<EventTrace> traces) { //disk instead of heap
+		if(traces.isEmpty() || spill.append(traces)) {
+			log.debug("{} traces were spilled", traces.size());
+			return emptyList();
 		}
+		return traces; //requeue
 	}
 
 	void dispatchTasks() {
@@ -296,13 +299,27 @@ public final class TraceDispatcherHub implements TraceHub {
 			ie = e;
 		}
 		finally { //final dispatch, will be executed on shutdown hook thread
+			eventBus.shutdown(); //final hooks are inline
 			dispatchTraces(true);
+			pipeline.shutdown();
+			closeSpill();
+			VirtualThreadMonitor.stopMonitor(); //JFR stream
 			if(nonNull(ie)) {
 				currentThread().interrupt();
 			}
 		}
 	}
 	
+	void closeSpill() {
+		if(nonNull(spill)) {
+			try {
+				spill.close();
+			} catch (IOException e) {
+				log.warn("cannot close spill log", e);
+			}
+		}
+	}
+	
 	static void mergeSessionMaskUpdates(List<EventTrace> traces){
 		var call = traces.stream().mapMulti((t, c)-> {
 			if(t instanceof AbstractSessionUpdate sc && sc.getRequestMask().get() > 0) {
@@ -377,20 +394,52 @@ public final class TraceDispatcherHub implements TraceHub {
 	
 	public static TraceHub createHub(InspectCollectorConfiguration conf, TraceExporter agent, ObjectMapper mapper) {
 		if(conf.isEnabled()) {
-			var eventBus = new EventTraceBus();
+			var eventBus = new EventTraceBus(conf.getTracing().getHookTimeout());
 			if(conf.getMonitoring().getResources().isEnabled()) {
 				log.info("machine resource monitoring is enabled");
 				eventBus.registerHook(new MachineResourceMonitor(conf.getMonitoring().getResources().getDisk()));
 			}
+			if(conf.getMonitoring().getVirtualThread().isEnabled()) {
+				var mnt = VirtualThreadMonitor.startMonitor(conf.getMonitoring().getVirtualThread().getPinnedThreshold());
+				if(nonNull(mnt)) {
+					log.info("virtual thread pinning monitoring is enabled");
+					eventBus.registerHook(mnt);
+				}
+			}
+			if(conf.getMonitoring().getDatabase().getPool().isEnabled()) {
+				log.info("connection pool monitoring is enabled");
+				eventBus.registerHook(new ConnectionPoolMonitor(conf.getMonitoring().getDatabase().getPool().getLeakThreshold()));
+			}
+			if(conf.getMonitoring().getDatabase().getQueryDetector().isEnabled()) {
+				log.info("N+1 & slow query detection is enabled");
+				eventBus.registerHook(QueryDetector.start(conf.getMonitoring().getDatabase().getQueryDetector()));
+			}
 //			if(conf.isDebugMode()) {
 //				bus.registerHook(new EventTraceDebugger())
 //			}
 			if(conf.getTracing().getDump().isEnabled()) {
 				log.info("event trace dumping is enabled, location={}", conf.getTracing().getDump().getLocation());
-				eventBus.registerHook(new EventTraceDumper(createDirs(conf.getTracing().getDump().getLocation(), nextId()), mapper));
+				eventBus.registerHook(new EventTraceDumper(createDirs(conf.getTracing().getDump().getLocation(), nextId()), mapper, conf.getTracing().getDump()));
 			}
-			return new TraceDispatcherHub(conf, agent, eventBus);
+			return new TraceDispatcherHub(conf, agent, eventBus, spillLog(conf.getTracing().getDump(), mapper));
 		}
 		return ()-> conf;
 	}
+	
+	static SpillLog spillLog(DumpProperties dump, ObjectMapper mapper) {
+		if(dump.getSpill().isEnabled()) {
+			for(var i=0; i<MAX_SPILL_DIRS; i++) { //stable location, replayed after restart
+				var dir = createDirs(dump.getLocation(), i == 0 ? "spill" : "spill-" + i);
+				try {
+					var spill = new SpillLog(dir, mapper, dump.getSpill().getSegmentSize(), dump.getSpill().getMaxSize());
+					log.info("trace spilling is enabled, location={}", dir);
+					return spill;
+				} catch (IOException e) {
+					log.debug("cannot open spill log {}, cause {} : {}", dir, e.getClass().getSimpleName(), e.getMessage());
+				}
+			}
+			log.warn("cannot open spill log in {}, failed traces will be kept in memory", dump.getLocation());
+		}
+		return null;
+	}
 }
@@ -18,6 +18,8 @@ public interface TraceHub {
 
 	default boolean emitTrace(EventTrace trace) {return false;}
 
+	default boolean sample(String key) {return true;}
+
 	default boolean emitTraces(List<EventTrace> traces) {return false;}
 
 	default void reportError(boolean stack, String action, Throwable thwr) {}
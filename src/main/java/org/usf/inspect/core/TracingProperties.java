@@ -1,7 +1,17 @@
 package org.usf.inspect.core;
 
+import static java.time.Duration.ofMillis;
+import static java.time.Duration.ofMinutes;
+import static java.time.Duration.ofSeconds;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
+import static org.usf.inspect.core.Assertions.assertBetween;
 import static org.usf.inspect.core.Assertions.assertGreaterOrEquals;
+import static org.usf.inspect.core.Assertions.assertPositive;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.stream.Stream;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -21,9 +31,26 @@ public class TracingProperties { //add remote
 	private RemoteServerProperties remote; //replace server
 	//v1.1
 	private DumpProperties dump = new DumpProperties();
+	//v1.2
+	private TraceCategory[] overflowPriority = TraceCategory.values(); // shedding order when queue capacity is exceeded, first shed first
+	private int batchSize = 5_000; // max traces per dispatch request, 0: no split
+	private int maxInFlight = 2; // max parallel dispatch requests
+	private SamplingProperties sampling = new SamplingProperties();
+	private TailSamplingProperties tailSampling = new TailSamplingProperties();
+	private Duration hookTimeout = ofSeconds(5); // hooks run on a separate thread, max wait per dispatch cycle, 0: inline
 	
 	void validate() {
 		assertGreaterOrEquals(queueCapacity, 10, "queue-capacity");
+		assertPositive(batchSize, "batch-size");
+		assertGreaterOrEquals(maxInFlight, 1, "max-in-flight");
+		if(isNull(overflowPriority) || Stream.of(overflowPriority).distinct().count() != TraceCategory.values().length) {
+			throw new IllegalArgumentException("overflow-priority=" + Arrays.toString(overflowPriority) + " must contain all trace categories once");
+		}
+		if(!hookTimeout.isZero()) {
+			assertBetween(hookTimeout, ofMillis(10), ofMinutes(1), "hook-timeout");
+		}
+		sampling.validate();
+		tailSampling.validate();
 		dump.validate();
 		if(nonNull(remote)) {
 			remote.validate();
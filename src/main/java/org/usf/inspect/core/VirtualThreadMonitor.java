@@ -0,0 +1,141 @@
+package org.usf.inspect.core;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.usf.inspect.core.TraceDispatcherHub.hub;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Records carrier pinning (JFR jdk.VirtualThreadPinned) as stages on the session bound to the pinned virtual thread.
+ * JFR events are delivered asynchronously, so thread => session bindings are kept until the session is completed.
+ * 
+ * @author u$f
+ *
+ */
+@Slf4j
+public final class VirtualThreadMonitor implements DispatchHook {
+	
+	static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+	private static volatile VirtualThreadMonitor instance; //nullable
+	
+	private final Map<Long, AbstractSessionUpdate> threads = new ConcurrentHashMap<>(); //virtual thread id => session
+	private final RecordingStream stream;
+	
+	VirtualThreadMonitor(Duration threshold) {
+		this.stream = new RecordingStream();
+		stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+		stream.onEvent(PINNED_EVENT, this::onPinned);
+	}
+
+	void start() {
+		var thread = new Thread(this::run, "inspect-jfr-stream"); //startAsync uses a non daemon thread
+		thread.setDaemon(true);
+		thread.start();
+		instance = this;
+	}
+	
+	void run() {
+		try {
+			stream.start(); //blocks until closed
+		}
+		catch (IllegalStateException e) { //closed before start
+			log.debug("JFR stream was closed before start");
+		}
+	}
+	
+	static void bind(Thread thread, AbstractSessionUpdate ses) { //virtual thread only
+		var mnt = instance;
+		if(nonNull(mnt)) {
+			mnt.threads.put(thread.threadId(), ses);
+		}
+	}
+	
+	void onPinned(RecordedEvent e) {
+		var thrd = e.getThread("eventThread");
+		if(nonNull(thrd)) {
+			var stg = pinnedStage(thrd.getJavaThreadId(), thrd.getJavaName(), e.getStartTime(), e.getEndTime(), pinningFrame(e));
+			if(nonNull(stg)) {
+				hub().emitTrace(stg);
+			}
+		}
+	}
+	
+	VirtualThreadStage pinnedStage(long threadId, String threadName, Instant start, Instant end, String command) {
+		var ses = threads.get(threadId);
+		if(nonNull(ses) && ses.isSampled()) {
+			var stg = new VirtualThreadStage();
+			stg.setName("PINNED");
+			stg.setStart(start);
+			stg.setEnd(end);
+			stg.setRequestId(ses.getId());
+			stg.setThreadName(threadName);
+			stg.setCommand(command);
+			return stg;
+		}
+		return null;
+	}
+	
+	@Override
+	public void onSchedule(TraceHub ctx) { //sessions completed before the previous JFR flush
+		threads.values().removeIf(AbstractSessionUpdate::wasCompleted);
+	}
+	
+	int boundThreads() {
+		return threads.size();
+	}
+	
+	public void close() {
+		if(instance == this) {
+			instance = null;
+		}
+		stream.close();
+		threads.clear();
+	}
+	
+	static String pinningFrame(RecordedEvent e) {
+		var st = e.getStackTrace();
+		return isNull(st) ? null : pinningFrame(st.getFrames().stream()
+				.filter(RecordedFrame::isJavaFrame)
+				.map(f-> f.getMethod().getType().getName() + "." + f.getMethod().getName())
+				.toList());
+	}
+	
+	static String pinningFrame(List<String> frames) { //first non JDK frame, i.e. JDBC driver, synchronized user code
+		for(var f : frames) {
+			if(!f.startsWith("java.") && !f.startsWith("jdk.") && !f.startsWith("sun.")) {
+				return f;
+			}
+		}
+		return frames.isEmpty() ? null : frames.get(0);
+	}
+	
+	static VirtualThreadMonitor startMonitor(Duration threshold) {
+		try {
+			var mnt = new VirtualThreadMonitor(threshold);
+			mnt.start();
+			return mnt;
+		}
+		catch (Exception | LinkageError e) { //JFR not available
+			log.warn("cannot start virtual thread pinning monitor, cause {} : {}", e.getClass().getSimpleName(), e.getMessage());
+			return null;
+		}
+	}
+	
+	static void stopMonitor() { //see TraceDispatcherHub.shutdown
+		var mnt = instance;
+		if(nonNull(mnt)) {
+			mnt.close();
+			log.info("virtual thread pinning monitor was stopped");
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package org.usf.inspect.core;
+
+import static java.time.Duration.ZERO;
+import static java.time.Duration.ofMillis;
+import static java.time.Duration.ofSeconds;
+import static org.usf.inspect.core.Assertions.assertBetween;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+@Getter
+@Setter
+@ToString
+public final class VirtualThreadMonitoringProperties {
+
+	private boolean enabled;
+	private Duration pinnedThreshold = ofMillis(20); // JFR jdk.VirtualThreadPinned threshold
+	
+	void validate() {
+		if(enabled) {
+			assertBetween(pinnedThreshold, ZERO, ofSeconds(10), "pinned-threshold");
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package org.usf.inspect.core;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Session stage, requestId = session id
+ * 
+ * @author u$f
+ *
+ */
+@Getter
+@Setter
+public final class VirtualThreadStage extends AbstractStage {
+	
+	private String threadName;
+}
@@ -1,7 +1,9 @@
 package org.usf.inspect.http;
 
 import static org.usf.inspect.core.InspectExecutor.call;
+import static org.usf.inspect.core.SessionContextManager.unsampledContext;
 import static org.usf.inspect.http.WebUtils.TRACE_HEADER;
+import static org.usf.inspect.http.WebUtils.unsampledTraceHeader;
 
 import java.io.IOException;
 
@@ -22,6 +24,10 @@ public final class HttpRequestInterceptor implements ClientHttpRequestIntercepto
 	
 	@Override
 	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+		if(unsampledContext()) { //propagate decision only
+			request.getHeaders().set(TRACE_HEADER, unsampledTraceHeader());
+			return execution.execute(request, body);
+		}
 		var mnt = new HttpRequestMonitor();
 		request.getHeaders().set(TRACE_HEADER, mnt.getId());
 		var res = call(()-> execution.execute(request, body), mnt.exchangeHandler(request));
@@ -0,0 +1,86 @@
+package org.usf.inspect.http;
+
+import static java.util.Arrays.copyOf;
+import static java.util.Objects.isNull;
+import static java.util.concurrent.ConcurrentHashMap.newKeySet;
+import static org.springframework.web.servlet.HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.util.AntPathMatcher;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Route patterns (best matching pattern) learned on handler interception : sessions are sampled in the filter,
+ * before the handler is resolved, so the request path is matched against known patterns (results are cached). 
+ * Unknown routes have no key.
+ * 
+ * @author u$f
+ *
+ */
+final class HttpRoutePatterns {
+	
+	static final int MAX_PATTERNS = 1_000; //application routes
+	static final int MAX_PATHS = 10_000; //resolved paths cache
+	private static final String NO_MATCH = "";
+
+	private final AntPathMatcher matcher = new AntPathMatcher();
+	private final Set<String> known = newKeySet();
+	private final Map<String, String> paths = new ConcurrentHashMap<>(); //path => pattern, cleared on new pattern
+	private volatile String[] patterns = new String[0];
+
+	/**
+	 * @return the most specific known pattern, null if unknown
+	 */
+	String key(HttpServletRequest req) {
+		if(req.getAttribute(BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String p) { //async or error dispatch
+			return p;
+		}
+		var path = req.getServletPath();
+		var key = paths.get(path);
+		if(isNull(key)) {
+			key = match(path);
+			if(paths.size() < MAX_PATHS) { //path variables may be unbounded
+				paths.put(path, key);
+			}
+		}
+		return key == NO_MATCH ? null : key;
+	}
+	
+	String match(String path) {
+		String best = NO_MATCH;
+		Comparator<String> cmp = null;
+		for(var p : patterns) {
+			if(matcher.match(p, path)) {
+				if(best == NO_MATCH) {
+					best = p;
+				}
+				else {
+					cmp = isNull(cmp) ? matcher.getPatternComparator(path) : cmp; //once per path
+					best = cmp.compare(p, best) < 0 ? p : best;
+				}
+			}
+		}
+		return best;
+	}
+
+	void register(HttpServletRequest req) {
+		if(req.getAttribute(BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String p 
+				&& !known.contains(p) && known.size() < MAX_PATTERNS && known.add(p)) {
+			synchronized (this) {
+				var arr = copyOf(patterns, patterns.length+1);
+				arr[patterns.length] = p;
+				patterns = arr;
+			}
+			paths.clear(); //may be more specific
+		}
+	}
+	
+	int cachedPaths() {
+		return paths.size();
+	}
+}
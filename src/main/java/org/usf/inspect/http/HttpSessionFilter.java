@@ -46,6 +46,7 @@ public final class HttpSessionFilter extends OncePerRequestFilter implements Han
 
 	private final HttpRoutePredicate routePredicate;
 	private final HttpUserProvider userProvider;
+	private final HttpRoutePatterns routes = hub().getConfiguration().getTracing().getSampling().getMode().isKeyed() ? new HttpRoutePatterns() : null; //sampling key
 	
 	@Override
 	protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain filterChain) throws IOException, ServletException {
@@ -65,7 +66,7 @@ public final class HttpSessionFilter extends OncePerRequestFilter implements Han
 	private ExecutionListener<Void> filterHandler(HttpServletRequest req, HttpServletResponse res) {
 		var mnt = currentHttpMonitor(req);
 		if(isNull(mnt)) {
-			mnt = new HttpSessionMonitor(req, res);
+			mnt = new HttpSessionMonitor(req, res, nonNull(routes) ? routes.key(req) : null);
 			req.setAttribute(SESSION_MONITOR, mnt);
 		}
 		return mnt.preFilter(()-> this.isAsyncStarted(req));
@@ -84,6 +85,9 @@ public final class HttpSessionFilter extends OncePerRequestFilter implements Han
 	@Override
 	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
 		if(shouldIntercept(handler)) {  //avoid unfiltred request
+			if(nonNull(routes)) {
+				routes.register(request);
+			}
 			var mnt = currentHttpMonitor(request);
 			if(assertMonitorNonNull(mnt, "HttpSessionFilter.preHandle")) {
 				mnt.preProcess();
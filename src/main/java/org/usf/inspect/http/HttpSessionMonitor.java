@@ -19,9 +19,12 @@ import static org.usf.inspect.core.Monitor.assertStillOpened;
 import static org.usf.inspect.core.Monitor.traceAtomic;
 import static org.usf.inspect.core.SessionContextManager.clearContext;
 import static org.usf.inspect.core.SessionContextManager.createHttpSession;
+import static org.usf.inspect.core.SessionContextManager.sampleSession;
 import static org.usf.inspect.core.SessionContextManager.setActiveContext;
 import static org.usf.inspect.core.TraceDispatcherHub.hub;
 import static org.usf.inspect.http.WebUtils.TRACE_HEADER;
+import static org.usf.inspect.http.WebUtils.traceId;
+import static org.usf.inspect.http.WebUtils.upstreamSampled;
 
 import java.net.URI;
 import java.time.Instant;
@@ -53,9 +56,15 @@ public final class HttpSessionMonitor {
 	private HttpSessionUpdate callback;
 	private boolean async;
 	
-	public HttpSessionMonitor(HttpServletRequest request, HttpServletResponse response) {
+	/**
+	 * @param sampleKey route pattern, nullable
+	 */
+	public HttpSessionMonitor(HttpServletRequest request, HttpServletResponse response, String sampleKey) {
 		this.lastTimestamp = systemUTC().instant();
-		this.handler = traceAtomic(createHttpSession(lastTimestamp, request.getHeader(TRACE_HEADER)), this::createCallback,
+		var header = request.getHeader(TRACE_HEADER);
+		var session = createHttpSession(lastTimestamp, traceId(header));
+		session.setSampled(sampleSession(sampleKey, upstreamSampled(header)));
+		this.handler = traceAtomic(session, this::createCallback,
 				ses->{
 					if(nonNull(request)) {
 						ses.setMethod(request.getMethod());
@@ -137,6 +146,9 @@ public final class HttpSessionMonitor {
 	}
 
 	void emitStage(HttpAction action) {
+		if(nonNull(callback) && !callback.isSampled()) {
+			return; //no-op context
+		}
 		var end = systemUTC().instant();
 		if(assertStillOpened(callback, "HttpSessionMonitor.emitStage")) {
 			hub().emitTrace(callback.createStage(action, lastTimestamp, end, null));
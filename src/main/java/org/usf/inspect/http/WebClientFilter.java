@@ -2,7 +2,9 @@ package org.usf.inspect.http;
 
 import static org.springframework.web.reactive.function.client.ClientRequest.from;
 import static org.usf.inspect.core.InspectExecutor.call;
+import static org.usf.inspect.core.SessionContextManager.unsampledContext;
 import static org.usf.inspect.http.WebUtils.TRACE_HEADER;
+import static org.usf.inspect.http.WebUtils.unsampledTraceHeader;
 
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -23,6 +25,9 @@ public final class WebClientFilter implements ExchangeFilterFunction { //see Res
 
 	@Override
 	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction exc) {//request.headers is ReadOnlyHttpHeaders
+		if(unsampledContext()) { //propagate decision only
+			return exc.exchange(from(request).header(TRACE_HEADER, unsampledTraceHeader()).build());
+		}
 		var mnt = new HttpRequestAsyncMonitor();
 		var sync = new AtomicInteger(1);
 		return call(()-> exc.exchange(from(request).header(TRACE_HEADER, mnt.getId()).build()), mnt.preExchange(request))
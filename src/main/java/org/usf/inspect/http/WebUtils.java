@@ -1,5 +1,8 @@
 package org.usf.inspect.http;
 
+import static java.util.Objects.nonNull;
+import static org.usf.inspect.core.SessionContextManager.activeContext;
+
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
@@ -12,4 +15,19 @@ import lombok.NoArgsConstructor;
 final class WebUtils {
 
 	static final String TRACE_HEADER = "x-tracert"; //X-Request-Id
+	static final String UNSAMPLED_FLAG = ";s=0"; //v1.2 upstream sampling decision, appended to trace id
+	
+	static String traceId(String header) { //nullable
+		return nonNull(header) && header.endsWith(UNSAMPLED_FLAG) 
+				? header.substring(0, header.length() - UNSAMPLED_FLAG.length()) 
+				: header;
+	}
+	
+	static Boolean upstreamSampled(String header) { //null: no upstream decision
+		return nonNull(header) ? !header.endsWith(UNSAMPLED_FLAG) : null;
+	}
+	
+	static String unsampledTraceHeader() {
+		return activeContext().getId() + UNSAMPLED_FLAG;
+	}
 }
@@ -1,50 +1,103 @@
 package org.usf.inspect.jdbc;
 
 import static java.lang.Integer.parseInt;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static org.usf.inspect.jdbc.JdbcURLDecoder.decode;
 
 import java.sql.Connection;
-import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
-import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 
 /**
- * 
+ * Connection metadata per (url, user, schema), built once per key : concurrent first connections wait for the same entry.
+ * Routing data sources resolve the key on each connection, other data sources have a single target (no metadata call once built).
+ *
  * @author u$f
  *
  */
-@Getter
+@RequiredArgsConstructor
 final class ConnectionMetadataCache {
 
-	private String scheme;
-	private String host;
-	private int port;
-	private String name;
-	private String schema; 
-	private String user;
-	private String productName; 
-	private String productVersion; 
-	private String driverVersion;
-	private boolean present;
-	
-	public void update(DatabaseMetaData meta) throws SQLException {
-		var arr = decode(meta.getURL());
-		this.scheme = arr[0];
-		this.host = arr[1]; 
-		this.port = nonNull(arr[2]) ? parseInt(arr[2]) : -1;
-		this.name = arr[3];
-		this.schema = getSchema(meta.getConnection());
-		this.user = meta.getUserName();
-		this.productName = meta.getDatabaseProductName();
-		this.productVersion = meta.getDatabaseProductVersion();
-		this.driverVersion = meta.getDriverVersion();
-		this.present = true;
+	static final int MAX_ENTRIES = 256; //tenants, built but not cached beyond
+	private static final Key SINGLE = new Key(null, null, null);
+
+	private final Map<Key, FutureTask<Metadata>> entries = new ConcurrentHashMap<>();
+	private final boolean routing; //key resolved on each connection
+	private volatile Metadata single; //single target
+
+	ConnectionMetadataCache() {
+		this(false);
+	}
+
+	/**
+	 * @return null if the connection failed (cnx is null) and the target is unknown
+	 */
+	public Metadata get(Connection cnx) throws SQLException {
+		if(!routing && nonNull(single)) {
+			return single;
+		}
+		if(isNull(cnx)) {
+			return single;
+		}
+		if(routing) {
+			var meta = cnx.getMetaData();
+			return get(new Key(meta.getURL(), meta.getUserName(), getSchema(cnx)), cnx);
+		}
+		return single = get(SINGLE, cnx);
+	}
+
+	Metadata get(Key key, Connection cnx) throws SQLException {
+		var task = entries.get(key);
+		if(isNull(task)) {
+			var ft = new FutureTask<>(()-> build(key, cnx));
+			if(entries.size() < MAX_ENTRIES) {
+				task = entries.putIfAbsent(key, ft);
+			}
+			if(isNull(task)) { //first access or not cached
+				task = ft;
+				ft.run();
+			}
+		}
+		try {
+			return task.get(); //wait for first access
+		}
+		catch (ExecutionException e) {
+			entries.remove(key, task); //next connection will retry
+			throw e.getCause() instanceof SQLException se ? se : new SQLException(e.getCause());
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException(e);
+		}
+	}
+
+	int size() {
+		return entries.size();
+	}
+
+	static Metadata build(Key key, Connection cnx) throws SQLException {
+		var meta = cnx.getMetaData();
+		var arr = decode(nonNull(key.url()) ? key.url() : meta.getURL());
+		return new Metadata(
+				arr[0],
+				arr[1],
+				nonNull(arr[2]) ? parseInt(arr[2]) : -1,
+				arr[3],
+				key == SINGLE ? getSchema(cnx) : key.schema(),
+				key == SINGLE ? meta.getUserName() : key.user(),
+				meta.getDatabaseProductName(),
+				meta.getDatabaseProductVersion(),
+				meta.getDriverVersion());
 	}
 
 	static String getSchema(Connection cnx) {
-		try { 
+		try {
 			return cnx.getSchema(); //PG: select current_schema()
 		}
 		catch (Throwable e) { //
@@ -53,4 +106,9 @@ final class ConnectionMetadataCache {
 		}
 		return null;
 	}
+
+	record Key(String url, String user, String schema) {}
+
+	record Metadata(String scheme, String host, int port, String name, String schema, String user,
+			String productName, String productVersion, String driverVersion) {}
 }
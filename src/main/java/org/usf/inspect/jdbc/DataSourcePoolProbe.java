@@ -0,0 +1,193 @@
+package org.usf.inspect.jdbc;
+
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.util.Collections.synchronizedMap;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.usf.inspect.core.Helper.threadName;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.usf.inspect.core.ConnectionPoolProbe;
+import org.usf.inspect.core.ConnectionPoolUsage;
+import org.usf.inspect.core.SafeCallable;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * HikariCP pool counters are read from its MXBean (reflection, optional dependency),
+ * wrapper counters are used for other data sources : acquisition wait, active & pending connections.
+ *
+ * @author u$f
+ *
+ */
+@Slf4j
+final class DataSourcePoolProbe implements ConnectionPoolProbe {
+
+	private static final String HIKARI_DS = "com.zaxxer.hikari.HikariDataSource";
+	private static final String HIKARI_BEAN = "com.zaxxer.hikari.HikariPoolMXBean";
+
+	private final String name;
+	private final DataSource ds;
+	private final AtomicInteger active = new AtomicInteger();
+	private final AtomicInteger pending = new AtomicInteger();
+	private final AtomicInteger acquired = new AtomicInteger();
+	private final AtomicLong totalWait = new AtomicLong();
+	private final AtomicLong maxWait = new AtomicLong();
+	private final Map<Object, Lease> leases = new ConcurrentHashMap<>();
+	private final Map<Connection, Boolean> physicals = synchronizedMap(new WeakHashMap<>()); //pooled connections
+	private final Method[] hikari; //[bean, active, idle, pending, total], null if not hikari
+	private Object bean; //lazy, pool is started on first connection
+
+	DataSourcePoolProbe(String name, DataSource ds) {
+		this.name = name;
+		this.ds = ds;
+		this.hikari = hikariMethods(ds);
+	}
+
+	Connection acquire(SafeCallable<Connection, SQLException> call, DatabaseRequestMonitor monitor) throws SQLException {
+		pending.incrementAndGet();
+		var start = nanoTime();
+		try {
+			var cnx = call.call();
+			monitor.pool = this;
+			monitor.poolWait = lease(monitor, start);
+			monitor.newConnection = isNewConnection(cnx);
+			return cnx;
+		}
+		finally {
+			pending.decrementAndGet();
+		}
+	}
+
+	Connection acquire(SafeCallable<Connection, SQLException> call) throws SQLException { //unsampled context, no monitor
+		pending.incrementAndGet();
+		var start = nanoTime();
+		try {
+			var cnx = call.call();
+			var lsd = new LeasedConnection(cnx, this);
+			lease(lsd, start);
+			isNewConnection(cnx);
+			return lsd;
+		}
+		finally {
+			pending.decrementAndGet();
+		}
+	}
+
+	long lease(Object owner, long start) {
+		var wait = nanoTime() - start;
+		acquired.incrementAndGet();
+		totalWait.addAndGet(wait);
+		maxWait.accumulateAndGet(wait, Math::max);
+		active.incrementAndGet();
+		leases.put(owner, new Lease(start, threadName()));
+		return wait;
+	}
+
+	void release(Object owner) { //monitor or leased connection
+		if(nonNull(leases.remove(owner))) {
+			active.decrementAndGet();
+		}
+	}
+
+	boolean isNewConnection(Connection cnx) {
+		try {
+			var phy = cnx.isWrapperFor(Connection.class) ? cnx.unwrap(Connection.class) : cnx;
+			return isNull(physicals.put(phy, true));
+		}
+		catch (Exception e) { //unwrap not supported
+			return false;
+		}
+	}
+
+	@Override
+	public ConnectionPoolUsage sample(Instant instant) {
+		var arr = hikariCounters();
+		return new ConnectionPoolUsage(instant, name,
+				nonNull(arr) ? arr[0] : active.get(),
+				nonNull(arr) ? arr[1] : -1,
+				nonNull(arr) ? arr[2] : pending.get(),
+				nonNull(arr) ? arr[3] : -1,
+				acquired.getAndSet(0), totalWait.getAndSet(0), maxWait.getAndSet(0));
+	}
+
+	@Override
+	public void detectLeaks(long thresholdNanos, Consumer<String> report) {
+		var now = nanoTime();
+		for(var e : leases.entrySet()) {
+			var l = e.getValue();
+			if(!l.reported && now - l.start > thresholdNanos) {
+				l.reported = true;
+				var req = e.getKey() instanceof DatabaseRequestMonitor m ? m.requestId() : null;
+				report.accept(format("'%s' connection held for %ds by thread '%s'%s",
+						name, (now - l.start) / 1_000_000_000L, l.thread, nonNull(req) ? ", request=" + req : ""));
+			}
+		}
+	}
+
+	int[] hikariCounters() {
+		if(nonNull(hikari)) {
+			try {
+				if(isNull(bean)) {
+					bean = hikari[0].invoke(ds.unwrap(hikari[0].getDeclaringClass()));
+				}
+				if(nonNull(bean)) {
+					return new int[] {
+							(int) hikari[1].invoke(bean),
+							(int) hikari[2].invoke(bean),
+							(int) hikari[3].invoke(bean),
+							(int) hikari[4].invoke(bean)};
+				}
+			}
+			catch (Exception e) {
+				log.warn("cannot read '{}' pool counters, cause {} : {}", name, e.getClass().getSimpleName(), e.getMessage());
+			}
+		}
+		return null; //wrapper counters
+	}
+
+	static Method[] hikariMethods(DataSource ds) {
+		try {
+			var cl = ds.getClass().getClassLoader();
+			var dsc = Class.forName(HIKARI_DS, false, cl);
+			if(ds.isWrapperFor(dsc)) {
+				var bc = Class.forName(HIKARI_BEAN, false, cl);
+				return new Method[] {
+						dsc.getMethod("getHikariPoolMXBean"),
+						bc.getMethod("getActiveConnections"),
+						bc.getMethod("getIdleConnections"),
+						bc.getMethod("getThreadsAwaitingConnection"),
+						bc.getMethod("getTotalConnections")};
+			}
+		}
+		catch (ClassNotFoundException | NoSuchMethodException | SQLException e) {
+			//not hikari
+		}
+		return null;
+	}
+
+	static final class Lease {
+
+		private final long start;
+		private final String thread;
+		private volatile boolean reported;
+
+		Lease(long start, String thread) {
+			this.start = start;
+			this.thread = thread;
+		}
+	}
+}
@@ -1,8 +1,10 @@
 package org.usf.inspect.jdbc;
 
+import static java.util.Objects.nonNull;
 import static java.util.Objects.requireNonNullElse;
 import static org.usf.inspect.core.BeanUtils.logWrappingBean;
 import static org.usf.inspect.core.InspectExecutor.call;
+import static org.usf.inspect.core.SessionContextManager.unsampledContext;
 import static org.usf.inspect.core.TraceDispatcherHub.hub;
 
 import java.sql.Connection;
@@ -10,9 +12,12 @@ import java.sql.SQLException;
 
 import javax.sql.DataSource;
 
-import lombok.AccessLevel;
+import org.usf.inspect.core.ConnectionPoolMonitor;
+import org.usf.inspect.core.DatabaseMonitoringProperties;
+import org.usf.inspect.core.SafeCallable;
+
+import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.experimental.Delegate;
 import lombok.extern.slf4j.Slf4j;
 
@@ -22,23 +27,73 @@ import lombok.extern.slf4j.Slf4j;
  *
  */
 @Slf4j
-@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
 public final class DataSourceWrapper implements DataSource {
+
+	private static final String ROUTING_DS = "org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource";
 	
 	@Delegate
 	private final DataSource ds;
-	private final ConnectionMetadataCache cache = new ConnectionMetadataCache();
+	private final ConnectionMetadataCache cache;
+	private final DatabaseMonitoringProperties properties = hub().getConfiguration().getMonitoring().getDatabase();
+	@Getter
+	private final DatabaseCommandCache commandCache = commandCache(properties);
+	private final DataSourcePoolProbe pool; //nullable
+	
+	private DataSourceWrapper(DataSource ds, String beanName) {
+		this.ds = ds;
+		this.cache = new ConnectionMetadataCache(isRouting(ds.getClass()));
+		this.pool = poolProbe(ds, beanName, properties);
+	}
 
 	@Override
 	public Connection getConnection() throws SQLException {
-		var monitor = new DatabaseRequestMonitor(cache);
-		return new ConnectionWrapper(call(ds::getConnection, monitor.connectionHandler()), monitor);
+		if(unsampledContext()) { //no-op context, pool usage only
+			return nonNull(pool) ? pool.acquire(ds::getConnection) : ds.getConnection();
+		}
+		var monitor = new DatabaseRequestMonitor(cache, commandCache, properties);
+		return new ConnectionWrapper(call(()-> acquire(ds::getConnection, monitor), monitor.connectionHandler()), monitor);
 	}
 
 	@Override
 	public Connection getConnection(String username, String password) throws SQLException {
-		var monitor = new DatabaseRequestMonitor(cache);
-		return new ConnectionWrapper(call(()-> ds.getConnection(username, password), monitor.connectionHandler()), monitor);
+		if(unsampledContext()) {
+			return nonNull(pool) ? pool.acquire(()-> ds.getConnection(username, password)) : ds.getConnection(username, password);
+		}
+		var monitor = new DatabaseRequestMonitor(cache, commandCache, properties);
+		return new ConnectionWrapper(call(()-> acquire(()-> ds.getConnection(username, password), monitor), monitor.connectionHandler()), monitor);
+	}
+	
+	Connection acquire(SafeCallable<Connection, SQLException> call, DatabaseRequestMonitor monitor) throws SQLException {
+		return nonNull(pool) ? pool.acquire(call, monitor) : call.call();
+	}
+	
+	static boolean isRouting(Class<?> type) { //AbstractRoutingDataSource : multiple targets
+		for(var c=type; nonNull(c); c=c.getSuperclass()) {
+			if(ROUTING_DS.equals(c.getName())) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	static DataSourcePoolProbe poolProbe(DataSource ds, String beanName, DatabaseMonitoringProperties prop) {
+		if(prop.getPool().isEnabled()) {
+			var probe = new DataSourcePoolProbe(beanName, ds);
+			ConnectionPoolMonitor.register(probe);
+			return probe;
+		}
+		return null;
+	}
+	
+	static DatabaseCommandCache commandCache(DatabaseMonitoringProperties prop) {
+		var textMaxLength = -1; //no normalization
+		if(prop.isSqlFingerprint()) {
+			textMaxLength = prop.getSqlTextMaxLength();
+		}
+		else if(prop.getQueryDetector().isEnabled()) {
+			textMaxLength = 0; //fingerprint only
+		}
+		return new DatabaseCommandCache(prop.getCommandCacheSize(), prop.getCommandCacheMaxLength(), textMaxLength);
 	}
 	
 	public static DataSource wrap(DataSource ds) {
@@ -49,7 +104,7 @@ public final class DataSourceWrapper implements DataSource {
 		if(hub().getConfiguration().isEnabled()){
 			if(ds.getClass() != DataSourceWrapper.class) {
 				logWrappingBean(requireNonNullElse(beanName, "dataSource"), ds.getClass());
-				return new DataSourceWrapper(ds);
+				return new DataSourceWrapper(ds, requireNonNullElse(beanName, "dataSource"));
 			}
 			else {
 				log.warn("{}: {} is already wrapped", beanName, ds);
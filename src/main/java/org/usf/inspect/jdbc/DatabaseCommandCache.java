@@ -0,0 +1,101 @@
+package org.usf.inspect.jdbc;
+
+import static java.lang.Integer.highestOneBit;
+import static java.util.Objects.nonNull;
+import static org.usf.inspect.core.DatabaseCommand.extractCommand;
+import static org.usf.inspect.core.SqlNormalizer.normalize;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.usf.inspect.core.DatabaseCommand;
+import org.usf.inspect.core.SqlNormalizer.NormalizedQuery;
+
+/**
+ * Bounded, lock-free SQL => command (and normalized query) cache (direct-mapped : one slot per hash, replaced on collision).
+ * Hit is allocation free, same SQL instances are matched by identity first.
+ * 
+ * @author u$f
+ *
+ */
+public final class DatabaseCommandCache {
+	
+	private final AtomicReferenceArray<Entry> entries; //nullable
+	private final int mask;
+	private final int maxLength;
+	private final int textMaxLength; //normalized SQL, -1: no normalization
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	DatabaseCommandCache(int size, int maxLength) {
+		this(size, maxLength, -1);
+	}
+
+	DatabaseCommandCache(int size, int maxLength, int textMaxLength) {
+		if(size > 0) {
+			var n = highestOneBit(size) == size ? size : highestOneBit(size) << 1; //power of two
+			this.entries = new AtomicReferenceArray<>(n);
+			this.mask = n-1;
+		}
+		else { //disabled
+			this.entries = null;
+			this.mask = 0;
+		}
+		this.maxLength = maxLength;
+		this.textMaxLength = textMaxLength;
+	}
+
+	public DatabaseCommand get(String sql) {
+		return nonNull(sql) ? entry(sql).command : null;
+	}
+
+	/**
+	 * @return null if normalization is disabled
+	 */
+	public NormalizedQuery query(String sql) {
+		return nonNull(sql) && textMaxLength > -1 ? entry(sql).query : null;
+	}
+	
+	public boolean isNormalizing() {
+		return textMaxLength > -1;
+	}
+
+	Entry entry(String sql) {
+		if(nonNull(entries) && sql.length() <= maxLength) {
+			var idx = spread(sql.hashCode()) & mask; //String.hash is cached
+			var e = entries.get(idx);
+			if(nonNull(e) && (e.sql == sql || e.sql.equals(sql))) {
+				hits.increment();
+				return e;
+			}
+			misses.increment();
+			e = newEntry(sql);
+			entries.set(idx, e); //evict previous
+			return e;
+		}
+		return newEntry(sql);
+	}
+	
+	Entry newEntry(String sql) {
+		return new Entry(sql, extractCommand(sql), textMaxLength > -1 ? normalize(sql, textMaxLength) : null);
+	}
+	
+	public long getHits() {
+		return hits.sum();
+	}
+	
+	public long getMisses() {
+		return misses.sum();
+	}
+	
+	static int spread(int h) {
+		return h ^ (h >>> 16); //see HashMap.hash
+	}
+	
+	@Override
+	public String toString() {
+		return "{hits=" + hits + ", misses=" + misses + "}";
+	}
+
+	record Entry(String sql, DatabaseCommand command, NormalizedQuery query) {} //command & query may be null
+}
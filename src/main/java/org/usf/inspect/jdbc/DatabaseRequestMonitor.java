@@ -10,59 +10,95 @@ import static org.usf.inspect.core.DatabaseAction.EXECUTE;
 import static org.usf.inspect.core.DatabaseAction.FETCH;
 import static org.usf.inspect.core.DatabaseAction.STATEMENT;
 import static org.usf.inspect.core.DatabaseCommand.SQL;
-import static org.usf.inspect.core.DatabaseCommand.extractCommand;
 import static org.usf.inspect.core.ExceptionInfo.mainCauseException;
+import static org.usf.inspect.core.Monitor.assertStillOpened;
+import static org.usf.inspect.core.MonotonicClock.currentClock;
 import static org.usf.inspect.core.TraceDispatcherHub.hub;
 
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.time.Instant;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
-import java.util.stream.IntStream;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
 
+import org.usf.inspect.core.AbstractStage;
+import org.usf.inspect.core.BatchResult;
 import org.usf.inspect.core.DatabaseAction;
 import org.usf.inspect.core.DatabaseCommand;
+import org.usf.inspect.core.DatabaseMonitoringProperties;
 import org.usf.inspect.core.DatabaseRequestSignal;
 import org.usf.inspect.core.DatabaseRequestStage;
 import org.usf.inspect.core.DatabaseRequestUpdate;
+import org.usf.inspect.core.FetchStats;
 import org.usf.inspect.core.InspectExecutor.ExecutionListener;
+import org.usf.inspect.core.Monitor.StageCreator;
 import org.usf.inspect.core.Monitor.StatefulMonitor;
+import org.usf.inspect.core.MonotonicClock;
+import org.usf.inspect.core.QueryDetector;
 import org.usf.inspect.core.SessionContextManager;
+import org.usf.inspect.core.StageAggregate;
 
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 
 /**
  * 
  * @author u$f
  *
  */
-@RequiredArgsConstructor
 final class DatabaseRequestMonitor extends StatefulMonitor<DatabaseRequestSignal, DatabaseRequestUpdate> {
 
 	private final ConnectionMetadataCache cache; //required
+	private final DatabaseCommandCache commands; //required, shared by data source
+	private final boolean pooledStages;
+	private final int aggregationThreshold; //0: disabled
+	private final boolean sqlFingerprint; //normalized SQL on EXECUTE stages
+	private final int batchChunkSize; //0: one BATCH stage
+	final long fetchStallNanos; //-1: result set metrics disabled
+	final boolean fetchBytes;
 
 	private boolean prepared;
 	private DatabaseCommand mainCommand;
+	private DatabaseCommandCache.Entry lastSql; // query detection, resolved once per execution
 	private DatabaseRequestStage lastExec; // hold last stage
+	private DatabaseRequestStage[][] aggregates; // [action][command], folded stages
 	
 	BatchStageHandler batchHandler = null;
+	DataSourcePoolProbe pool; //null if pool monitoring is disabled
+	long poolWait;
+	boolean newConnection;
+	
+	DatabaseRequestMonitor(ConnectionMetadataCache cache, DatabaseCommandCache commands, DatabaseMonitoringProperties properties) {
+		this.cache = cache;
+		this.commands = commands;
+		this.pooledStages = properties.isPooledStages();
+		this.aggregationThreshold = properties.getStageAggregationThreshold();
+		this.sqlFingerprint = properties.isSqlFingerprint();
+		this.batchChunkSize = properties.getBatchChunkSize();
+		var rs = properties.getResultSet();
+		this.fetchStallNanos = rs.isEnabled() ? rs.getStallThreshold().toNanos() : -1;
+		this.fetchBytes = rs.isEnabled() && rs.isBytes();
+	}
 	
 	public ExecutionListener<Connection> connectionHandler() {
 		return traceBegin(SessionContextManager::createDatabaseRequest, (req,cnx)->{
-			if(nonNull(cnx) && !cache.isPresent()) {
-				cache.update(cnx.getMetaData());
-			}
-			if(cache.isPresent()) {
-				req.setScheme(cache.getScheme());
-				req.setHost(cache.getHost());
-				req.setPort(cache.getPort());
-				req.setName(cache.getName()); //getCatalog
-				req.setSchema(cache.getSchema());
-				req.setUser(cache.getUser());
-				req.setProductName(cache.getProductName());
-				req.setProductVersion(cache.getProductVersion());
-				req.setDriverVersion(cache.getDriverVersion());
+			var meta = cache.get(cnx); //built once per target
+			if(nonNull(meta)) {
+				req.setScheme(meta.scheme());
+				req.setHost(meta.host());
+				req.setPort(meta.port());
+				req.setName(meta.name()); //getCatalog
+				req.setSchema(meta.schema());
+				req.setUser(meta.user());
+				req.setProductName(meta.productName());
+				req.setProductVersion(meta.productVersion());
+				req.setDriverVersion(meta.driverVersion());
+			}
+			if(nonNull(pool)) {
+				req.setPoolWait(poolWait);
+				req.setNewConnection(newConnection);
 			}
 		}, stageHandler(CONNECTION)); //before end if thrw
 	}
@@ -77,7 +113,7 @@ final class DatabaseRequestMonitor extends StatefulMonitor<DatabaseRequestSignal
 		mainCommand = null; //rest
 		if(nonNull(sql)) {
 			prepared = true;
-			parseAndMergeCommand(sql);
+			lastSql = parseAndMergeCommand(sql);
 		}
 		return stageHandler(STATEMENT);
 	}
@@ -86,14 +122,13 @@ final class DatabaseRequestMonitor extends StatefulMonitor<DatabaseRequestSignal
 		if(nonNull(sql)) {
 			parseAndMergeCommand(sql);
 		}
-		return isNull(batchHandler) ? traceStep((s,e,v,t)-> {
-			var stg = getCallback().createStage(BATCH, s, e, t, null, new long[] {1});
-			if(nonNull(t)) {
-				return stg;
-			}
-			batchHandler = new BatchStageHandler(stg);
+		if(isSkipped()) {
 			return null;
-		}) : batchHandler;
+		}
+		if(isNull(batchHandler)) {
+			batchHandler = new BatchStageHandler();
+		}
+		return batchHandler;
 	}
 	
 	public ExecutionListener<ResultSet> executeQueryStageHandler(String sql) {
@@ -114,35 +149,19 @@ final class DatabaseRequestMonitor extends StatefulMonitor<DatabaseRequestSignal
 
 	public ExecutionListener<int[]> executeBatchStageHandler(){
 		emitBatchStage(); //before batch execute
-		return executeStageHandler(null, arr-> {
-			if(arr.length > 1) { 
-				var i=0;
-				while(++i<arr.length && arr[i]==arr[0]);
-				if(i==arr.length){
-					return new long[] {i*arr[0]}; // [n,n,n,..,n] => [nN]
-				}
-			}
-			return IntStream.of(arr).mapToLong(v->v).toArray();
-		});
+		return executeStageHandler(null, (stg, arr)-> setBatchResult(stg, BatchResult.of(arr))); //no long[] boxing
 	}
 
 	public ExecutionListener<long[]> executeLargeBatchStageHandler() {
 		emitBatchStage(); //before batch execute
-		return executeStageHandler(null, arr-> {
-			if(arr.length > 1) {
-				var i=0;
-				while(++i<arr.length && arr[i]==arr[0]);
-				if(i==arr.length){
-					return new long[] {i*arr[0]}; // [n,n,n,..,n] => [nN]
-				}
-			}
-			return arr;
-		});
+		return executeStageHandler(null, (stg, arr)-> setBatchResult(stg, BatchResult.of(arr)));
 	}
 	
 	void emitBatchStage() { //wait for last addBatch
-		if(nonNull(batchHandler)) { //batch & largeBatch
-			hub().emitTrace(batchHandler.getStage());
+		if(nonNull(batchHandler) && (nonNull(batchHandler.getStage()) || batchHandler.getChunks() > 0)) { //batch & largeBatch
+			if(nonNull(batchHandler.getStage())) { //last chunk
+				hub().emitTrace(batchHandler.getStage());
+			}
 			batchHandler = null;
 		}
 		else {
@@ -151,11 +170,28 @@ final class DatabaseRequestMonitor extends StatefulMonitor<DatabaseRequestSignal
 	}
 
 	private <T> ExecutionListener<T> executeStageHandler(String sql, Function<T, long[]> countFn) {
+		return executeStageHandler(sql, (stg, o)-> stg.setCount(countFn.apply(o)));
+	}
+
+	private <T> ExecutionListener<T> executeStageHandler(String sql, BiConsumer<DatabaseRequestStage, T> resultFn) {
 		if(nonNull(sql)) { //statement
-			parseAndMergeCommand(sql); //command set on exec stg
+			lastSql = parseAndMergeCommand(sql); //command set on exec stg
 		}
 		return traceStep((s,e,o,t)-> {
-			lastExec = getCallback().createStage(EXECUTE, s, e, t, mainCommand, nonNull(o) ? countFn.apply(o) : null); // o may be null, if execution failed
+			lastExec = getCallback().createStage(EXECUTE, s, e, t, mainCommand, (long[]) null);
+			if(nonNull(o)) { // o may be null, if execution failed
+				resultFn.accept(lastExec, o);
+			}
+			else if(t instanceof BatchUpdateException be && nonNull(be.getLargeUpdateCounts())) { //partial results
+				setBatchResult(lastExec, BatchResult.of(be.getLargeUpdateCounts()));
+			}
+			if(sqlFingerprint && nonNull(lastSql)) {
+				var qry = lastSql.query();
+				if(nonNull(qry)) {
+					lastExec.setFingerprint(qry.fingerprint());
+					lastExec.setQuery(qry.text());
+				}
+			}
 			if(!prepared) { //else multiple preparedStmt execution
 				mainCommand = null;
 			}
@@ -163,12 +199,24 @@ final class DatabaseRequestMonitor extends StatefulMonitor<DatabaseRequestSignal
 		});
 	}
 
+	static void setBatchResult(DatabaseRequestStage stg, BatchResult res) {
+		stg.setBatch(res);
+		if(res.getNoInfo() + res.getFailed() < res.getSize()) {
+			stg.setCount(new long[] {res.getRows()}); //known rows
+		}
+	}
+
 	public void updateStageRowsCount(long rows) {
 		if(rows > -1) {
 			try { //lastStg may be already sent !!
 				if(nonNull(lastExec) && EXECUTE.name().equals(lastExec.getName())) {
 					var arr = lastExec.getCount();
-					lastExec.setCount(isNull(arr) ? new long[] {rows} : appendLong(arr, rows)); // getMoreResults
+					if(nonNull(lastExec.getAggregate()) && nonNull(arr)) {
+						arr[0] += rows; //total rows
+					}
+					else {
+						lastExec.setCount(isNull(arr) ? new long[] {rows} : appendLong(arr, rows)); // getMoreResults
+					}
 				}
 			}
 			catch (Exception e) {
@@ -177,20 +225,152 @@ final class DatabaseRequestMonitor extends StatefulMonitor<DatabaseRequestSignal
 		}
 	}
 
-	public <T> ExecutionListener<T> fetch(Instant start, int n) {
-		return traceStep((s,e,o,t)-> getCallback().createStage(FETCH, start, e, t, null, new long[] {n})); //differed start 
+	public <T> ExecutionListener<T> fetch(long start, int n, FetchStats stats) { //nanoTime
+		StageCreator<T> fn = (s,e,o,t)-> {
+			var stg = getCallback().createStage(FETCH, s, e, t, null, new long[] {n});
+			stg.setFetch(stats);
+			return stg;
+		};
+		ExecutionListener<T> lstn = isNull(stats) ? traceStep(FETCH, n, fn) : traceStep(fn); //pooled if no stats
+		if(isNull(lstn)) {
+			return null;
+		}
+		return new ExecutionListener<>() { //differed start
+			
+			@Override
+			public void handle(Instant s, Instant e, T o, Throwable t) throws Exception {
+				lstn.handle(currentClock().instant(start), e, o, t);
+			}
+			
+			@Override
+			public void handle(MonotonicClock clock, long s, long e, T o, Throwable t) throws Exception {
+				lstn.handle(clock, start, e, o, t);
+			}
+		};
 	}
 	
 	public ExecutionListener<Object> disconnectionHandler() {
+		if(nonNull(pool)) {
+			pool.release(this);
+		}
 		return traceEnd(stageHandler(DISCONNECTION));
 	}
+	
+	String requestId() {
+		return nonNull(getCallback()) ? getCallback().getId() : null;
+	}
 
 	<T> ExecutionListener<T> stageHandler(DatabaseAction action, String... args) {
 		return stageHandler(action, null, args);
 	}
 
 	<T> ExecutionListener<T> stageHandler(DatabaseAction action, DatabaseCommand cmd, String... args) {
-		return traceStep((s,e,o,t)-> getCallback().createStage(action, s, e, t, cmd, args));
+		StageCreator<T> fn = (s,e,o,t)-> getCallback().createStage(action, s, e, t, cmd, args);
+		return isNull(cmd) && (isNull(args) || args.length == 0) ? traceStep(action, -1, fn) : traceStep(fn);
+	}
+	
+	@Override
+	protected Supplier<? extends AbstractStage> pooledStageFactory() {
+		return pooledStages && !isAggregating() ? DatabaseRequestStage::new : null; //aggregation first
+	}
+	
+	@Override
+	protected void emitStage(AbstractStage stg) {
+		if(nonNull(lastSql) && stg instanceof DatabaseRequestStage s && EXECUTE.name().equals(s.getName()) && QueryDetector.isEnabled()) {
+			QueryDetector.record(queryFingerprint(lastSql), s.getCommand(), s.durationNanos());
+		}
+		if(isAggregating() && stg instanceof DatabaseRequestStage s && isFoldable(s)) {
+			var agg = foldStage(s);
+			if(lastExec == s) {
+				lastExec = agg; //rows count update
+			}
+		}
+		else {
+			super.emitStage(stg);
+		}
+	}
+	
+	@Override
+	protected void flushStages() {
+		super.flushStages();
+		if(nonNull(aggregates)) {
+			for(var arr : aggregates) {
+				if(nonNull(arr)) {
+					for(var stg : arr) {
+						super.emitStage(stg); //nullable
+					}
+				}
+			}
+			aggregates = null;
+		}
+	}
+	
+	boolean isAggregating() {
+		return aggregationThreshold > 0 && nonNull(getCallback()) && getCallback().getStageCounter().get() >= aggregationThreshold;
+	}
+	
+	boolean isFoldable(DatabaseRequestStage stg) {
+		return stg.getOrder() >= aggregationThreshold 
+				&& isNull(stg.getException()) 
+				&& (isNull(stg.getArgs()) || stg.getArgs().length == 0)
+				&& (STATEMENT.name().equals(stg.getName()) || EXECUTE.name().equals(stg.getName()) || FETCH.name().equals(stg.getName()));
+	}
+	
+	DatabaseRequestStage foldStage(DatabaseRequestStage stg) {
+		if(isNull(aggregates)) {
+			aggregates = new DatabaseRequestStage[DatabaseAction.values().length][];
+		}
+		var act = DatabaseAction.valueOf(stg.getName()).ordinal();
+		if(isNull(aggregates[act])) {
+			aggregates[act] = new DatabaseRequestStage[DatabaseCommand.values().length + 1];
+		}
+		var cmd = isNull(stg.getCommand()) ? 0 : DatabaseCommand.valueOf(stg.getCommand()).ordinal() + 1;
+		var agg = aggregates[act][cmd];
+		var rows = stg.getCount();
+		if(isNull(agg)) { //first occurrence becomes the aggregate
+			stg.setAggregate(StageAggregate.of(stg.durationNanos()));
+			if(nonNull(rows) && rows.length > 1) {
+				stg.setCount(new long[] {LongStream.of(rows).sum()});
+			}
+			return aggregates[act][cmd] = stg;
+		}
+		agg.getAggregate().append(stg.durationNanos());
+		if(nonNull(agg.getFingerprint()) && !agg.getFingerprint().equals(stg.getFingerprint())) { //same command, other queries
+			agg.setFingerprint(null);
+			agg.setQuery(null);
+		}
+		agg.extendEnd(stg);
+		if(nonNull(stg.getFetch())) {
+			if(isNull(agg.getFetch())) {
+				agg.setFetch(stg.getFetch());
+			}
+			else {
+				agg.getFetch().append(stg.getFetch());
+			}
+		}
+		if(nonNull(stg.getBatch())) {
+			if(isNull(agg.getBatch())) {
+				agg.setBatch(stg.getBatch());
+			}
+			else {
+				agg.getBatch().append(stg.getBatch());
+			}
+		}
+		if(nonNull(rows)) {
+			var sum = LongStream.of(rows).sum();
+			if(isNull(agg.getCount())) {
+				agg.setCount(new long[] {sum});
+			}
+			else {
+				agg.getCount()[0] += sum;
+			}
+		}
+		return agg;
+	}
+	
+	static long queryFingerprint(DatabaseCommandCache.Entry entry) {
+		var qry = entry.query();
+		return nonNull(qry) ? qry.hash() : entry.sql().hashCode() & 0xffffffffL; //normalization disabled
 	}
 	
 	static long[] appendLong(long[]arr, long v) {
@@ -199,12 +379,15 @@ final class DatabaseRequestMonitor extends StatefulMonitor<DatabaseRequestSignal
 		return a;
 	}
 	
-	void parseAndMergeCommand(String sql) {
+	DatabaseCommandCache.Entry parseAndMergeCommand(String sql) {
 		try {
-			mainCommand = mergeCommand(mainCommand, extractCommand(sql));
+			var entry = commands.entry(sql); //long SQL are not cached
+			mainCommand = mergeCommand(mainCommand, entry.command());
+			return entry;
 		}
 		catch (Exception e) {
 			hub().reportError(false, "parseAndMergeCommand", e);
+			return null;
 		}
 	}
 	
@@ -218,21 +401,57 @@ final class DatabaseRequestMonitor extends StatefulMonitor<DatabaseRequestSignal
 	@Getter
 	final class BatchStageHandler implements ExecutionListener<Void> {
 
-		private final DatabaseRequestStage stage;
+		private DatabaseRequestStage stage; //first addBatch of current chunk
+		private int chunks; //emitted chunks
 		
-		public BatchStageHandler(DatabaseRequestStage stage) {
-			this.stage = stage;
-		}
-
 		@Override
 		public void handle(Instant start, Instant end, Void o, Throwable t) {
+			if(isNull(stage)) {
+				if(!createStage(start, end)) {
+					return;
+				}
+			}
+			else {
+				stage.setEnd(end);
+			}
+			append(t);
+		}
+		
+		@Override
+		public void handle(MonotonicClock clock, long start, long end, Void o, Throwable t) {
+			if(isNull(stage)) {
+				if(!createStage(null, null)) {
+					return;
+				}
+				stage.setPeriod(clock, start, end);
+			}
+			else {
+				stage.setEnd(clock, end); //no allocation
+			}
+			append(t);
+		}
+		
+		boolean createStage(Instant start, Instant end) {
+			if(assertStillOpened(getCallback(), "DatabaseRequestMonitor.addBatch")) {
+				stage = getCallback().createStage(BATCH, start, end, null, null, new long[] {0});
+				return true;
+			}
+			batchHandler = null;
+			return false;
+		}
+		
+		void append(Throwable t) {
 			stage.getCount()[0]++;
-			stage.setEnd(end); //optim this		
 			if(nonNull(t)) {
 				batchHandler = null; //reset batching trace
 				stage.setException(mainCauseException(t)); //may overwrite previous
 				hub().emitTrace(stage);
 			}
+			else if(batchChunkSize > 0 && stage.getCount()[0] >= batchChunkSize) { //chunk timing
+				hub().emitTrace(stage);
+				stage = null; //next addBatch
+				chunks++;
+			}
 		}
 	}
 }
@@ -0,0 +1,31 @@
+package org.usf.inspect.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Delegate;
+
+/**
+ * Unsampled connection : no monitor, only released from the pool probe on close.
+ * 
+ * @author u$f
+ *
+ */
+@RequiredArgsConstructor
+final class LeasedConnection implements Connection {
+	
+	@Delegate
+	private final Connection cn;
+	private final DataSourcePoolProbe pool;
+	
+	@Override
+	public void close() throws SQLException {
+		try {
+			cn.close();
+		}
+		finally {
+			pool.release(this);
+		}
+	}
+}
@@ -1,28 +1,45 @@
 package org.usf.inspect.jdbc;
 
-import static java.time.Clock.systemUTC;
+import static java.lang.System.nanoTime;
+import static java.util.Objects.nonNull;
 import static org.usf.inspect.core.InspectExecutor.exec;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.time.Instant;
 
-import lombok.RequiredArgsConstructor;
+import org.usf.inspect.core.FetchStats;
+
 import lombok.experimental.Delegate;
 
 /**
+ * Optional streaming metrics (primitive counters, no per row allocation) : time to first row,
+ * driver time spent in next() vs consumer think time, stalled next() calls (fetch round trips) and approximate bytes read.
  * 
  * @author u$f
  *
  */
-@RequiredArgsConstructor
 public final class ResultSetWrapper implements ResultSet {
 
 	@Delegate
 	private final ResultSet rs;
 	private final DatabaseRequestMonitor monitor;
-	private final Instant start = systemUTC().instant();
+	private final long start = nanoTime();
+	private final long stall; //-1: metrics disabled
+	private final boolean countBytes;
 	private int rows;
+	private long firstRow = -1; //-1: next() never called
+	private long lastNext; //last next() return
+	private long driver;
+	private long think;
+	private int roundTrips;
+	private long bytes;
+
+	public ResultSetWrapper(ResultSet rs, DatabaseRequestMonitor monitor) {
+		this.rs = rs;
+		this.monitor = monitor;
+		this.stall = monitor.fetchStallNanos;
+		this.countBytes = monitor.fetchBytes;
+	}
 
 	@Override
 	public boolean previous() throws SQLException {
@@ -41,7 +58,44 @@ public final class ResultSetWrapper implements ResultSet {
 
 	@Override
 	public boolean next() throws SQLException {
-		return updateRows(rs.next());
+		if(stall < 0) {
+			return updateRows(rs.next());
+		}
+		var s = nanoTime();
+		if(firstRow > -1) {
+			think += s - lastNext;
+		}
+		var b = rs.next();
+		lastNext = nanoTime();
+		var d = lastNext - s;
+		driver += d;
+		if(d > stall) {
+			roundTrips++; //fetch-size boundary
+		}
+		if(firstRow < 0) {
+			firstRow = lastNext - start;
+		}
+		return updateRows(b);
+	}
+	
+	@Override
+	public String getString(int columnIndex) throws SQLException {
+		return countBytes(rs.getString(columnIndex));
+	}
+	
+	@Override
+	public String getString(String columnLabel) throws SQLException {
+		return countBytes(rs.getString(columnLabel));
+	}
+	
+	@Override
+	public byte[] getBytes(int columnIndex) throws SQLException {
+		return countBytes(rs.getBytes(columnIndex));
+	}
+	
+	@Override
+	public byte[] getBytes(String columnLabel) throws SQLException {
+		return countBytes(rs.getBytes(columnLabel));
 	}
 
 	@Override
@@ -75,8 +129,26 @@ public final class ResultSetWrapper implements ResultSet {
 		return false;
 	}
 	
+	private String countBytes(String v) {
+		if(countBytes && nonNull(v)) {
+			bytes += v.length(); //approximate, 1 byte per char
+		}
+		return v;
+	}
+	
+	private byte[] countBytes(byte[] v) {
+		if(countBytes && nonNull(v)) {
+			bytes += v.length;
+		}
+		return v;
+	}
+	
+	FetchStats stats() {
+		return stall < 0 ? null : new FetchStats(firstRow < 0 ? 0 : firstRow, driver, think, roundTrips, bytes); //0: next() never called
+	}
+	
 	@Override
 	public void close() throws SQLException {
-		exec(rs::close, monitor.fetch(start, rows));
+		exec(rs::close, monitor.fetch(start, rows, stats()));
 	}
 }
@@ -0,0 +1,63 @@
+package org.usf.inspect.core;
+
+import static java.sql.Statement.EXECUTE_FAILED;
+import static java.sql.Statement.SUCCESS_NO_INFO;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class BatchResultTest {
+
+	@Test
+	void testOf() {
+		var arr = new int[1_000_000];
+		Arrays.fill(arr, 1);
+		var res = BatchResult.of(arr);
+		assertEquals(1_000_000, res.getSize());
+		assertEquals(1_000_000, res.getRows());
+		assertArrayEquals(new long[] {1, 1_000_000}, res.getRuns());
+		assertNull(res.getFailures());
+		assertFalse(res.isTruncated());
+	}
+
+	@Test
+	void testOf_failures() {
+		var res = BatchResult.of(new long[] {1, 1, EXECUTE_FAILED, 2, SUCCESS_NO_INFO, SUCCESS_NO_INFO, EXECUTE_FAILED});
+		assertEquals(7, res.getSize());
+		assertEquals(4, res.getRows());
+		assertEquals(2, res.getNoInfo());
+		assertEquals(2, res.getFailed());
+		assertArrayEquals(new int[] {2, 6}, res.getFailures());
+		assertArrayEquals(new long[] {1, 2, EXECUTE_FAILED, 1, 2, 1, SUCCESS_NO_INFO, 2, EXECUTE_FAILED, 1}, res.getRuns());
+	}
+
+	@Test
+	void testOf_truncated() {
+		var arr = new int[1000];
+		for(var i=0; i<arr.length; i++) {
+			arr[i] = i % 2 == 0 ? EXECUTE_FAILED : 1;
+		}
+		var res = BatchResult.of(arr);
+		assertTrue(res.isTruncated());
+		assertEquals(2*BatchResult.MAX_RUNS, res.getRuns().length);
+		assertEquals(BatchResult.MAX_FAILURES, res.getFailures().length);
+		assertEquals(500, res.getFailed()); //summary is exact
+		assertEquals(500, res.getRows());
+	}
+
+	@Test
+	void testAppend() {
+		var res = BatchResult.of(new int[] {1, 1, EXECUTE_FAILED});
+		res.append(BatchResult.of(new int[] {EXECUTE_FAILED, 3}));
+		assertEquals(5, res.getSize());
+		assertEquals(5, res.getRows());
+		assertArrayEquals(new int[] {2, 3}, res.getFailures());
+		assertArrayEquals(new long[] {1, 2, EXECUTE_FAILED, 2, 3, 1}, res.getRuns());
+	}
+}
@@ -0,0 +1,123 @@
+package org.usf.inspect.core;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.synchronizedList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.usf.inspect.core.LogEntry.Level.INFO;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class DispatchPipelineTest {
+
+	@Test
+	void testDispatch_batchSize() {
+		var batches = synchronizedList(new ArrayList<List<EventTrace>>());
+		var traces = traces(5, i-> "s1");
+		assertTrue(new DispatchPipeline(exporter(b-> {batches.add(b); return emptyList();}), 2, 1).dispatch(false, traces).isEmpty());
+		assertEquals(List.of(traces.subList(0, 2), traces.subList(2, 4), traces.subList(4, 5)), batches);
+		batches.clear();
+		assertTrue(new DispatchPipeline(exporter(b-> {batches.add(b); return emptyList();}), 0, 1).dispatch(false, traces).isEmpty());
+		assertEquals(List.of(traces), batches); //no split
+	}
+
+	@Test
+	void testDispatch_maxInFlight() {
+		var current = new AtomicInteger();
+		var max = new AtomicInteger();
+		var pipeline = new DispatchPipeline(exporter(b-> {
+			max.accumulateAndGet(current.incrementAndGet(), Math::max);
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			current.decrementAndGet();
+			return emptyList();
+		}), 1, 2);
+		try {
+			assertTrue(pipeline.dispatch(false, traces(20, i-> "s" + i)).isEmpty());
+			assertTrue(max.get() <= 2);
+			assertEquals(2, pipeline.partition(traces(20, i-> "s" + i)).size()); //one lane per request in flight
+		}
+		finally {
+			pipeline.shutdown();
+		}
+	}
+
+	@Test
+	void testDispatch_sessionOrder() {
+		var received = synchronizedList(new ArrayList<EventTrace>());
+		var traces = traces(60, i-> "s" + i % 6);
+		var pipeline = new DispatchPipeline(exporter(b-> {received.addAll(b); return emptyList();}), 3, 4);
+		try {
+			assertTrue(pipeline.dispatch(false, traces).isEmpty());
+			assertEquals(traces.size(), received.size());
+			for(var s=0; s<6; s++) {
+				var ses = "s" + s;
+				assertEquals(session(traces, ses), session(received, ses)); //same order
+			}
+			var lanes = pipeline.partition(traces);
+			for(var s=0; s<6; s++) {
+				var ses = "s" + s;
+				assertEquals(1, lanes.stream().filter(l-> !session(l, ses).isEmpty()).count()); //single lane
+			}
+		}
+		finally {
+			pipeline.shutdown();
+		}
+	}
+
+	@Test
+	void testDispatch_requeue() {
+		var calls = new AtomicInteger();
+		var traces = traces(7, i-> "s1");
+		var failed = new DispatchPipeline(exporter(b-> calls.incrementAndGet() == 2 ? b.subList(1, b.size()) : emptyList()), 2, 1).dispatch(false, traces);
+		assertEquals(traces.subList(3, 7), failed); //partial batch + rest of the lane, in order
+		assertEquals(2, calls.get()); //lane stopped
+		calls.set(0);
+		failed = new DispatchPipeline(exporter(b-> {
+			if(calls.incrementAndGet() == 3) {
+				throw new IllegalStateException("unreachable");
+			}
+			return emptyList();
+		}), 2, 1).dispatch(false, traces);
+		assertEquals(traces.subList(4, 7), failed);
+	}
+
+	static List<EventTrace> session(List<EventTrace> traces, String id) {
+		return traces.stream().filter(t-> id.equals(((LogEntry)t).getSessionId())).toList();
+	}
+
+	static List<EventTrace> traces(int n, Function<Integer, String> session) {
+		return IntStream.range(0, n).<EventTrace>mapToObj(i-> {
+			var log = new LogEntry(null, INFO, "msg" + i, null);
+			log.setSessionId(session.apply(i));
+			return log;
+		}).toList();
+	}
+
+	static TraceExporter exporter(Function<List<EventTrace>, List<EventTrace>> fn) {
+		return new TraceExporter() {
+			@Override
+			public void dispatch(InstanceEnvironment instance) {
+				//do nothing
+			}
+			@Override
+			public List<EventTrace> dispatch(boolean complete, List<EventTrace> traces) {
+				return fn.apply(traces);
+			}
+			@Override
+			public void dispatch(File dumpFile) {
+				//do nothing
+			}
+		};
+	}
+}
@@ -0,0 +1,139 @@
+package org.usf.inspect.core;
+
+import static java.lang.System.nanoTime;
+import static java.time.Duration.ofMillis;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class EventTraceBusTest {
+
+	@Test
+	void testRegister() {
+		var bus = new EventTraceBus();
+		var count = new AtomicInteger();
+		DispatchHook h1 = new DispatchHook() {
+			@Override
+			public void onSchedule(TraceHub ctx) {
+				count.incrementAndGet();
+			}
+		};
+		DispatchHook h2 = new DispatchHook() {
+			@Override
+			public void onSchedule(TraceHub ctx) {
+				throw new IllegalStateException();
+			}
+		};
+		bus.registerHook(h2);
+		bus.registerHook(h1);
+		bus.triggerSchedule(null);
+		assertEquals(1, count.get()); //next hook
+		assertEquals(1, bus.hooks()[0].failures.get());
+		bus.removeHook(h2);
+		bus.triggerSchedule(null);
+		assertEquals(2, count.get());
+		assertEquals(1, bus.hooks().length);
+		assertEquals(2, bus.hooks()[0].calls.get());
+	}
+
+	@Test
+	void testTimeout() throws InterruptedException {
+		var bus = new EventTraceBus(ofMillis(50));
+		var release = new CountDownLatch(1);
+		var count = new AtomicInteger();
+		bus.registerHook(new DispatchHook() {
+			@Override
+			public void onSchedule(TraceHub ctx) {
+				try {
+					release.await(10, TimeUnit.SECONDS); //slow hook
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		bus.registerHook(new DispatchHook() {
+			@Override
+			public void onSchedule(TraceHub ctx) {
+				count.incrementAndGet();
+			}
+		});
+		var start = nanoTime();
+		bus.triggerSchedule(null);
+		bus.triggerSchedule(null);
+		assertTrue(nanoTime() - start < 5_000_000_000L); //not blocked
+		var slow = bus.hooks()[0];
+		assertEquals(1, slow.timeouts.get());
+		assertEquals(1, slow.skipped.get()); //still running
+		assertEquals(2, count.get());
+		release.countDown();
+		bus.shutdown();
+		assertEquals(1, slow.calls.get());
+		bus.triggerSchedule(null); //inline after shutdown
+		assertEquals(3, count.get());
+	}
+
+	@Test
+	void testDispatchQueued() throws InterruptedException {
+		var bus = new EventTraceBus(ofMillis(20));
+		var release = new CountDownLatch(1);
+		var batches = new ArrayList<Collection<EventTrace>>();
+		bus.registerHook(new DispatchHook() {
+			@Override
+			public void onDispatch(TraceHub ctx, Collection<EventTrace> traces) {
+				try {
+					release.await(10, TimeUnit.SECONDS); //slow hook, ex: dumper
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				batches.add(traces);
+			}
+		});
+		var traces = new ArrayList<EventTrace>(EventTraceDumperTest.traces(0, 3));
+		bus.triggerTraceDispatch(null, traces);
+		traces.clear(); //requeued or reused by the hub
+		bus.triggerTraceDispatch(null, EventTraceDumperTest.traces(3, 5));
+		bus.triggerSchedule(null); //skipped
+		var hook = bus.hooks()[0];
+		assertEquals(2, hook.timeouts.get());
+		assertEquals(1, hook.skipped.get());
+		release.countDown();
+		bus.shutdown();
+		assertEquals(2, hook.calls.get()); //never skipped
+		assertEquals(List.of(3, 2), batches.stream().map(Collection::size).toList()); //in order, own copy
+	}
+
+	@Test
+	void testDispatchBackpressure() throws InterruptedException {
+		var bus = new EventTraceBus(ofMillis(10));
+		var release = new CountDownLatch(1);
+		bus.registerHook(new DispatchHook() {
+			@Override
+			public void onDispatch(TraceHub ctx, Collection<EventTrace> traces) {
+				try {
+					release.await(10, TimeUnit.SECONDS); //hung hook, ex: blocked filesystem
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		var n = EventTraceBus.MAX_PENDING + 4;
+		var start = nanoTime();
+		for(var i=0; i<n; i++) {
+			bus.triggerTraceDispatch(null, List.of());
+		}
+		assertTrue(nanoTime() - start < 5_000_000_000L); //never blocked beyond the cycle deadline
+		var hook = bus.hooks()[0];
+		assertEquals(4, hook.dropped.get());
+		release.countDown();
+		bus.shutdown();
+		assertEquals(EventTraceBus.MAX_PENDING, hook.calls.get()); //queued triggers
+	}
+}
@@ -0,0 +1,94 @@
+package org.usf.inspect.core;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.Instant.EPOCH;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.usf.inspect.core.InspectConfiguration.createObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class EventTraceDumperTest {
+
+	@TempDir
+	Path dir;
+
+	@ParameterizedTest
+	@ValueSource(booleans = {false, true})
+	void testAppendLines(boolean compress) throws IOException {
+		var prop = new DumpProperties();
+		prop.setCompress(compress);
+		var dumper = new EventTraceDumper(dir, createObjectMapper(), prop);
+		dumper.onDispatch(null, traces(0, 10));
+		dumper.onDispatch(null, traces(10, 20));
+		dumper.rotate();
+		var files = files();
+		assertEquals(1, files.size());
+		var lines = readLines(files.get(0));
+		assertEquals(20, lines.size());
+		assertTrue(lines.get(0).startsWith("{\"@type\":\"10\",\"id\":\"s0\""));
+	}
+
+	@Test
+	void testRotation() throws IOException, InterruptedException {
+		var prop = new DumpProperties();
+		prop.setMaxFileSize(1024);
+		prop.setMaxFiles(3);
+		var dumper = new EventTraceDumper(dir, createObjectMapper(), prop);
+		for(var i=0; i<10; i++) {
+			dumper.onDispatch(null, traces(i*20, i*20+20)); //> 1KB => rotate
+			Thread.sleep(2); //file name timestamp
+		}
+		var files = files();
+		assertEquals(3, files.size()); //oldest deleted
+		assertEquals(20, readLines(files.get(2)).size());
+	}
+
+	@Test
+	void testRotation_checkpoints() throws IOException, InterruptedException {
+		var prop = new DumpProperties();
+		prop.setMaxFileSize(1024);
+		prop.setMaxFiles(2);
+		var dumper = new EventTraceDumper(dir, createObjectMapper(), prop);
+		for(var i=0; i<3; i++) {
+			dumper.onDispatch(null, traces(i*20, i*20+20));
+			Thread.sleep(2);
+		}
+		var files = files();
+		var ckp = Files.writeString(RestTraceExporter.FileCheckpoint.path(files.get(1)), "10:0"); //upload in progress
+		Files.writeString(RestTraceExporter.FileCheckpoint.path(files.get(0)), "10:0");
+		dumper.onDispatch(null, traces(60, 80)); //rotate
+		files = files();
+		assertEquals(3, files.size()); //2 segments + checkpoint, not counted against max-files
+		assertTrue(files.contains(ckp));
+	}
+
+	List<Path> files() throws IOException {
+		try(var s = Files.list(dir)) {
+			return s.sorted().toList();
+		}
+	}
+
+	static List<String> readLines(Path file) throws IOException {
+		var in = Files.newInputStream(file);
+		try(var rd = new BufferedReader(new InputStreamReader(file.toString().endsWith(".gz") ? new GZIPInputStream(in) : in, UTF_8))) {
+			return rd.lines().toList();
+		}
+	}
+
+	static List<EventTrace> traces(int from, int to) {
+		return IntStream.range(from, to).<EventTrace>mapToObj(i-> new MainSessionSignal("s"+i, EPOCH, "main", "BATCH")).toList();
+	}
+}
@@ -0,0 +1,36 @@
+package org.usf.inspect.core;
+
+import static java.time.Instant.ofEpochSecond;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+class MonotonicClockTest {
+
+	@Test
+	void testInstant() {
+		var clk = new MonotonicClock(ofEpochSecond(10, 999_999_000), 1_000);
+		assertEquals(ofEpochSecond(10, 999_999_000), clk.instant(1_000));
+		assertEquals(ofEpochSecond(11, 1_000), clk.instant(3_000)); //carry
+		assertEquals(ofEpochSecond(10, 999_998_000), clk.instant(0));
+		assertEquals(ofEpochSecond(9, 999_999_000), clk.instant(-999_999_000)); //negative nanoTime
+	}
+
+	@Test
+	void testStagePeriod() {
+		var clk = new MonotonicClock(ofEpochSecond(100), 0);
+		var stg = new DatabaseRequestStage();
+		assertNull(stg.getStart());
+		stg.setPeriod(clk, 1_000, 5_000);
+		assertEquals(ofEpochSecond(100, 1_000), stg.getStart());
+		assertSame(stg.getStart(), stg.getStart()); //built once
+		stg.setEnd(clk, 9_000);
+		assertEquals(ofEpochSecond(100, 1_000), stg.getStart());
+		assertEquals(ofEpochSecond(100, 9_000), stg.getEnd());
+		var end = ofEpochSecond(200);
+		stg.setEnd(end); //explicit instant
+		assertEquals(end, stg.getEnd());
+	}
+}
@@ -0,0 +1,90 @@
+package org.usf.inspect.core;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.usf.inspect.core.TraceCategory.LOG;
+import static org.usf.inspect.core.TraceCategory.MASK;
+import static org.usf.inspect.core.TraceCategory.REQUEST;
+import static org.usf.inspect.core.TraceCategory.RESOURCE;
+import static org.usf.inspect.core.TraceCategory.SESSION;
+import static org.usf.inspect.core.TraceCategory.STAGE;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+class OverflowPolicyTest {
+
+	@Test
+	void testAdmit() {
+		var policy = new OverflowPolicy(100, TraceCategory.values()); //STAGE:90, RESOURCE:92, .., SESSION:100
+		var stg = new DatabaseRequestStage();
+		assertTrue(policy.admit(stg, 89));
+		assertFalse(policy.admit(stg, 90)); //first shed
+		assertTrue(policy.admit(signal("s1"), 99));
+		assertFalse(policy.admit(signal("s1"), 100)); //queue is full
+		assertTrue(policy.admit(update("s2"), 99)); 
+		assertTrue(policy.admit(update("s2"), 100)); //last level, bounded by the queue
+	}
+
+	@Test
+	void testAdmit_updateLevel() {
+		var policy = new OverflowPolicy(100, new TraceCategory[] {SESSION, STAGE, RESOURCE, MASK, LOG, REQUEST});
+		assertFalse(policy.admit(signal("s1"), 90)); //first shed
+		assertTrue(policy.admit(update("s2"), 90)); //next level, signal was admitted
+		assertFalse(policy.admit(update("s2"), 92));
+	}
+
+	@Test
+	void testAdmit_danglingUpdate() {
+		var policy = new OverflowPolicy(100, new TraceCategory[] {SESSION, STAGE, RESOURCE, MASK, LOG, REQUEST});
+		assertFalse(policy.admit(signal("s1"), 95));
+		assertFalse(policy.admit(update("s1"), 0)); //signal was rejected
+		assertTrue(policy.admit(update("s1"), 0)); //already removed
+		policy.reject(signal("s2")); //queue full
+		assertFalse(policy.admit(update("s2"), 0));
+	}
+
+	@Test
+	void testValidate() {
+		var prop = new TracingProperties();
+		assertDoesNotThrow(prop::validate);
+		prop.setOverflowPriority(new TraceCategory[] {STAGE, RESOURCE, MASK, LOG, REQUEST});
+		assertThrows(IllegalArgumentException.class, prop::validate); //missing
+		prop.setOverflowPriority(new TraceCategory[] {STAGE, RESOURCE, MASK, LOG, REQUEST, STAGE});
+		assertThrows(IllegalArgumentException.class, prop::validate); //duplicated
+		prop.setOverflowPriority(null);
+		assertThrows(IllegalArgumentException.class, prop::validate);
+	}
+
+	static TraceSignal signal(String id) {
+		return new TraceSignal() {
+			@Override
+			public String getId() {
+				return id;
+			}
+			@Override
+			public Instant getStart() {
+				return null;
+			}
+		};
+	}
+
+	static TraceUpdate update(String id) {
+		return new TraceUpdate() {
+			@Override
+			public String getId() {
+				return id;
+			}
+			@Override
+			public Instant getEnd() {
+				return null;
+			}
+			@Override
+			public void setEnd(Instant end) {
+			}
+		};
+	}
+}
@@ -0,0 +1,89 @@
+package org.usf.inspect.core;
+
+import static java.time.Duration.ofMillis;
+import static java.time.Instant.now;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class QueryDetectorTest {
+
+	@Test
+	void testRecord() {
+		var dtc = detector();
+		var ses = new MainSessionUpdate("s1");
+		var sq = dtc.new SessionQueries(ses);
+		assertNull(sq.record(1, "SELECT", 1000));
+		assertNull(sq.record(1, "SELECT", 1000));
+		assertTrue(sq.record(1, "SELECT", 1000).startsWith("N+1 query suspected")); //3rd execution
+		assertNull(sq.record(1, "SELECT", 1000)); //reported once
+		assertTrue(sq.record(2, "UPDATE", 5_000_000).startsWith("slow query"));
+		assertNull(sq.record(3, "DELETE", 1000)); //max queries
+		assertEquals(2, sq.reports().size());
+	}
+
+	@Test
+	void testP99() {
+		var qs = new QueryDetector.QueryStats(1, "SELECT");
+		for(var i=0; i<99; i++) {
+			qs.append(1000);
+		}
+		qs.append(1_000_000_000);
+		assertTrue(qs.p99() < 2048); //99 fast executions
+		qs.append(1_000_000_000);
+		assertEquals(1_000_000_000, qs.p99()); //max
+	}
+
+	@Test
+	void testOnSchedule() {
+		var dtc = detector();
+		var ses = new MainSessionUpdate("s1");
+		for(var i=0; i<3; i++) {
+			dtc.record(ses, 1, "SELECT", 1000);
+		}
+		dtc.record(ses, 4, "SELECT", 1000); //not reported
+		var traces = new ArrayList<EventTrace>();
+		dtc.onSchedule(hub(traces));
+		assertTrue(traces.isEmpty()); //session in progress
+		assertEquals(1, dtc.sessionCount());
+		ses.setEnd(now());
+		dtc.onSchedule(hub(traces));
+		assertEquals(0, dtc.sessionCount()); //freed
+		assertEquals(1, traces.size());
+		var rpt = (QueryPatternReport) traces.get(0);
+		assertEquals("s1", rpt.getSessionId());
+		assertEquals("0000000000000001", rpt.getFingerprint());
+		assertEquals(3, rpt.getCount());
+		assertTrue(rpt.isRepeated());
+		assertFalse(rpt.isSlow());
+	}
+
+	static QueryDetector detector() {
+		var prop = new QueryDetectorProperties();
+		prop.setRepeatThreshold(3);
+		prop.setSlowThreshold(ofMillis(1));
+		prop.setMaxQueries(2);
+		return new QueryDetector(prop);
+	}
+
+	static TraceHub hub(List<EventTrace> traces) {
+		return new TraceHub() {
+			
+			@Override
+			public InspectCollectorConfiguration getConfiguration() {
+				return null;
+			}
+			
+			@Override
+			public boolean emitTrace(EventTrace trace) {
+				return traces.add(trace);
+			}
+		};
+	}
+}
@@ -0,0 +1,223 @@
+package org.usf.inspect.core;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.Instant.EPOCH;
+import static java.util.Objects.nonNull;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.usf.inspect.core.InspectConfiguration.createObjectMapper;
+import static org.usf.inspect.core.PayloadFormat.JSON;
+import static org.usf.inspect.core.PayloadFormat.SMILE;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.sun.net.httpserver.HttpServer;
+
+class RestTraceExporterTest {
+
+	@TempDir
+	Path dir;
+
+	private HttpServer server;
+	private final List<Integer> chunks = new ArrayList<>(); //traces per request
+	private final AtomicInteger failAt = new AtomicInteger(-1);
+	private final List<String> headers = new ArrayList<>(); //content-encoding & transfer-encoding per request
+	private final List<String> contentTypes = new ArrayList<>();
+	private volatile boolean rejectSmile;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", ex-> {
+			var enc = ex.getRequestHeaders().getFirst("Content-Encoding");
+			var in = "gzip".equals(enc) ? new GZIPInputStream(ex.getRequestBody()) : ex.getRequestBody();
+			var body = in.readAllBytes();
+			if("PUT".equals(ex.getRequestMethod())) {
+				headers.add(enc + ":" + ex.getRequestHeaders().getFirst("Transfer-Encoding"));
+				var type = ex.getRequestHeaders().getFirst("Content-Type");
+				contentTypes.add(type);
+				var smile = SMILE.getContentType().equals(type);
+				if(smile && rejectSmile) {
+					ex.sendResponseHeaders(415, -1);
+				}
+				else if(chunks.size() == failAt.get()) {
+					failAt.set(-1);
+					var rsp = "{\"state\":\"DOWN\",\"retry\":true}".getBytes(UTF_8);
+					ex.getResponseHeaders().add("Content-Type", "application/json");
+					ex.sendResponseHeaders(503, rsp.length);
+					ex.getResponseBody().write(rsp);
+				}
+				else {
+					chunks.add((smile ? new ObjectMapper(new SmileFactory()) : createObjectMapper()).readTree(body).size());
+					ex.sendResponseHeaders(202, -1);
+				}
+			}
+			else {
+				ex.sendResponseHeaders(201, -1);
+			}
+			ex.close();
+		});
+		server.start();
+	}
+
+	@AfterEach
+	void tearDown() {
+		server.stop(0);
+	}
+
+	@Test
+	void testDispatchStreaming() {
+		var traces = EventTraceDumperTest.traces(0, 5_000); //> chunk size
+		assertTrue(exporter(true, 0).dispatch(false, traces).isEmpty());
+		assertEquals(List.of(5_000), chunks); //written in full
+		assertEquals(List.of("null:chunked"), headers);
+	}
+
+	@Test
+	void testDispatchStreaming_gzip() {
+		var traces = EventTraceDumperTest.traces(0, 5_000);
+		assertTrue(exporter(true, 1).dispatch(false, traces).isEmpty());
+		assertEquals(List.of(5_000), chunks);
+		assertEquals(List.of("gzip:chunked"), headers);
+	}
+
+	@Test
+	void testDispatchSmile() {
+		var exp = exporter(false, 0, SMILE);
+		assertTrue(exp.dispatch(false, EventTraceDumperTest.traces(0, 20)).isEmpty());
+		assertTrue(exp.dispatch(false, EventTraceDumperTest.traces(0, 5)).isEmpty());
+		assertEquals(List.of(20, 5), chunks);
+		assertEquals(List.of(SMILE.getContentType(), SMILE.getContentType()), contentTypes);
+	}
+
+	@Test
+	void testDispatchSmile_unsupported() {
+		rejectSmile = true;
+		var exp = exporter(false, 0, SMILE);
+		assertTrue(exp.dispatch(false, EventTraceDumperTest.traces(0, 20)).isEmpty()); //415 => JSON
+		assertTrue(exp.dispatch(false, EventTraceDumperTest.traces(0, 5)).isEmpty());
+		assertEquals(List.of(20, 5), chunks);
+		assertEquals(List.of(SMILE.getContentType(), JSON.getContentType(), JSON.getContentType()), contentTypes); //no more SMILE attempt
+	}
+
+	@Test
+	void testLoadWithoutSmile() throws Exception {
+		try(var cl = new HidingClassLoader("com.fasterxml.jackson.dataformat.smile.")) {
+			var c = Class.forName(RestTraceExporter.class.getName(), true, cl);
+			assertEquals(cl, c.getClassLoader());
+			assertDoesNotThrow(c::getDeclaredMethods); //resolve signatures
+			assertThrows(ClassNotFoundException.class, ()-> Class.forName(SmileFactory.class.getName(), true, cl));
+		}
+	}
+
+	@Test
+	void testDispatchFileInChunks() throws IOException {
+		var file = dumpFile(25);
+		exporter().dispatch(file.toFile());
+		assertEquals(List.of(10, 10, 5), chunks);
+		assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".ckp")));
+	}
+
+	@Test
+	void testDispatchFileResume() throws IOException {
+		var file = dumpFile(25);
+		var exp = exporter();
+		failAt.set(1); //second chunk
+		assertThrows(DispatchException.class, ()-> exp.dispatch(file.toFile()));
+		assertEquals(List.of(10), chunks);
+		assertTrue(Files.exists(file.resolveSibling(file.getFileName() + ".ckp")));
+		exp.dispatch(file.toFile()); //resume from checkpoint
+		assertEquals(List.of(10, 10, 5), chunks);
+	}
+
+	@Test
+	void testDispatchFileResume_renamed() throws IOException {
+		var file = dumpFile(25);
+		var exp = exporter();
+		failAt.set(1);
+		assertThrows(DispatchException.class, ()-> exp.dispatch(file.toFile()));
+		var renamed = Files.move(file, file.resolveSibling(file.getFileName() + "~1")); //attempts suffix
+		exp.dispatch(renamed.toFile()); //same checkpoint
+		assertEquals(List.of(10, 10, 5), chunks);
+		assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".ckp")));
+	}
+
+	RestTraceExporter exporter() {
+		return exporter(false, 0);
+	}
+
+	RestTraceExporter exporter(boolean streaming, int compressMinSize) {
+		return exporter(streaming, compressMinSize, JSON);
+	}
+
+	RestTraceExporter exporter(boolean streaming, int compressMinSize, PayloadFormat format) {
+		var prop = new RestRemoteServerProperties();
+		prop.setFormat(format);
+		prop.setHost(URI.create("http://localhost:" + server.getAddress().getPort()));
+		prop.setFileChunkSize(10);
+		prop.setStreaming(streaming);
+		prop.setCompressMinSize(compressMinSize);
+		prop.validate();
+		var exp = new RestTraceExporter(prop, createObjectMapper());
+		exp.dispatch(new InstanceEnvironment("i1", EPOCH, null, null, null, null, null, null, null, null, null, null, null, null, null));
+		return exp;
+	}
+
+	Path dumpFile(int n) {
+		var dumper = new EventTraceDumper(dir, createObjectMapper(), new DumpProperties());
+		dumper.onDispatch(null, EventTraceDumperTest.traces(0, n));
+		dumper.rotate();
+		try(var s = Files.list(dir)) {
+			return s.findFirst().orElseThrow();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * loads inspect classes itself, hides the given packages
+	 */
+	static final class HidingClassLoader extends URLClassLoader {
+
+		private final String hidden;
+
+		HidingClassLoader(String hidden) {
+			super(new URL[] {RestTraceExporter.class.getProtectionDomain().getCodeSource().getLocation()}, RestTraceExporterTest.class.getClassLoader());
+			this.hidden = hidden;
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if(name.startsWith(hidden)) {
+				throw new ClassNotFoundException(name);
+			}
+			if(name.startsWith("org.usf.inspect.")) {
+				synchronized (getClassLoadingLock(name)) {
+					var c = findLoadedClass(name);
+					return nonNull(c) ? c : findClass(name); //child first
+				}
+			}
+			return super.loadClass(name, resolve);
+		}
+	}
+}
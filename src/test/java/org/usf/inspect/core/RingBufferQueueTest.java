@@ -0,0 +1,67 @@
+package org.usf.inspect.core;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.IntStream.range;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class RingBufferQueueTest {
+	
+	@ParameterizedTest
+	@CsvSource({"0,2", "1,2", "2,2", "3,4", "100,128", "1024,1024"})
+	void testCapacity(int capacity, int expected) {
+		assertEquals(expected, new RingBufferQueue<>(capacity).capacity());
+	}
+
+	@Test
+	void testOffer_full() {
+		var q = new RingBufferQueue<Integer>(4);
+		range(0, 4).forEach(i-> assertTrue(q.offer(i)));
+		assertFalse(q.offer(4));
+		assertEquals(4, q.size());
+		assertEquals(0, q.poll());
+		assertTrue(q.offer(4)); //slot released
+		assertEquals(4, q.size());
+	}
+
+	@Test
+	void testDrainTo() {
+		var q = new RingBufferQueue<Integer>(8);
+		range(0, 20).forEach(i-> { //wrap around
+			assertTrue(q.offer(i));
+			if(i % 3 == 2) {
+				var arr = new ArrayList<Integer>();
+				assertEquals(3, q.drainTo(arr, 10));
+				assertEquals(List.of(i-2, i-1, i), arr);
+			}
+		});
+		assertEquals(List.of(18, 19), q.snapshot());
+		assertEquals(2, q.drainTo(new ArrayList<>(), 10));
+		assertNull(q.poll());
+		assertEquals(0, q.size());
+	}
+
+	@Test
+	void testOffer_concurrent() throws InterruptedException {
+		var q = new RingBufferQueue<Integer>(1 << 16);
+		var ex = newFixedThreadPool(8);
+		range(0, 8).forEach(t-> ex.execute(()-> range(0, 5_000).forEach(i-> q.offer(t * 5_000 + i))));
+		ex.shutdown();
+		assertTrue(ex.awaitTermination(10, SECONDS));
+		assertEquals(40_000, q.size());
+		var set = new HashSet<Integer>();
+		assertEquals(40_000, q.drainTo(set, Integer.MAX_VALUE));
+		assertEquals(40_000, set.size());
+	}
+}
@@ -0,0 +1,63 @@
+package org.usf.inspect.core;
+
+import static java.util.stream.IntStream.range;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.usf.inspect.core.Sampler.fixedRate;
+import static org.usf.inspect.core.Sampler.sampler;
+
+import org.junit.jupiter.api.Test;
+import org.usf.inspect.core.RateLimitedSampler.Window;
+
+class SamplerTest {
+
+	@Test
+	void testFixedRate() {
+		assertTrue(range(0, 100).allMatch(i-> fixedRate(1).sample("k")));
+		assertTrue(range(0, 100).noneMatch(i-> fixedRate(0).sample("k")));
+	}
+
+	@Test
+	void testWindow() {
+		var w = new Window();
+		assertTrue(w.acquire(2, 10));
+		assertTrue(w.acquire(2, 10));
+		assertFalse(w.acquire(2, 10)); //limit reached
+		assertTrue(w.acquire(2, 11)); //next window
+	}
+
+	@Test
+	void testRateLimited() {
+		var s = new RateLimitedSampler(1_000);
+		assertEquals(1_000, range(0, 1_000).filter(i-> s.sample("/api/" + i)).count()); //MAX_KEYS
+		assertTrue(s.sample("/api/0"));
+	}
+
+	@Test
+	void testRateLimited_eviction() {
+		var s = new RateLimitedSampler(1);
+		for(var i=0; i<RateLimitedSampler.MAX_KEYS; i++) {
+			assertTrue(s.sample("/api/" + i, 100));
+		}
+		assertEquals(RateLimitedSampler.MAX_KEYS, s.size());
+		assertTrue(s.sample("/other", 101)); //shared window
+		assertEquals(RateLimitedSampler.MAX_KEYS, s.size());
+		assertTrue(s.sample("/api/0", 130)); //still active
+		assertTrue(s.sample("/new", 100 + RateLimitedSampler.IDLE_SECONDS)); //idle windows evicted
+		assertEquals(2, s.size());
+	}
+
+	@Test
+	void testSampler() {
+		var p = new SamplingProperties();
+		assertTrue(sampler(p).sample(null)); //ALWAYS
+		p.setMode(SamplingMode.RATE_LIMITED);
+		assertInstanceOf(RateLimitedSampler.class, sampler(p));
+		p.setMode(SamplingMode.ADAPTIVE);
+		var s = (AdaptiveSampler) sampler(p);
+		assertTrue(s.sample(null)); //first window
+		assertEquals(1., s.getRate());
+	}
+}
@@ -0,0 +1,93 @@
+package org.usf.inspect.core;
+
+import static java.time.Instant.EPOCH;
+import static java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.usf.inspect.core.SessionContextManager.activeContext;
+import static org.usf.inspect.core.SessionContextManager.aroundCallable;
+import static org.usf.inspect.core.SessionContextManager.callWithContext;
+import static org.usf.inspect.core.SessionContextManager.clearContext;
+import static org.usf.inspect.core.SessionContextManager.nextId;
+import static org.usf.inspect.core.SessionContextManager.setActiveContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class SessionContextManagerTest {
+
+	@Test
+	void testScopedValueAvailable() {
+		assertTrue(ScopedContext.isAvailable()); //java 21+
+	}
+
+	@Test
+	void testNextId() {
+		var before = System.currentTimeMillis();
+		var id = nextId();
+		var after = System.currentTimeMillis();
+		assertTrue(id.matches("[0-9a-f]{8}-[0-9a-f]{4}-7[0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}"));
+		var uuid = UUID.fromString(id);
+		assertEquals(7, uuid.version());
+		assertEquals(2, uuid.variant()); //IETF
+		var time = uuid.getMostSignificantBits() >>> 16; //48bit timestamp
+		assertTrue(before <= time && time <= after);
+		assertNotEquals(id, nextId());
+	}
+
+	@Test
+	void testNextId_timeOrdered() throws InterruptedException {
+		var ids = new ArrayList<String>();
+		for(var i=0; i<5; i++) {
+			ids.add(nextId());
+			Thread.sleep(2); //next millisecond
+		}
+		assertEquals(ids.stream().sorted().toList(), ids); //lexicographic order
+	}
+
+	@Test
+	void testAroundCallable() throws Exception {
+		var ses = new MainSessionUpdate("s1");
+		setActiveContext(ses);
+		try {
+			var task = aroundCallable(SessionContextManager::activeContext);
+			try(var es = newVirtualThreadPerTaskExecutor()) {
+				assertSame(ses, es.submit(task).get());
+			}
+		}
+		finally {
+			clearContext(ses);
+		}
+		assertNull(activeContext());
+		assertEquals(0, ses.getThreadCount().get());
+	}
+
+	@Test
+	void testNestedContext() throws Exception {
+		var s1 = new MainSessionUpdate("s1");
+		var s2 = new MainSessionUpdate("s2");
+		callWithContext(s1, ()-> {
+			assertSame(s1, activeContext());
+			setActiveContext(s2); //thread local has priority over scope
+			assertSame(s2, activeContext());
+			clearContext(s2);
+			assertSame(s1, activeContext());
+			return null;
+		}, null);
+		assertNull(activeContext());
+	}
+
+	@Test
+	void testCheckedException() {
+		var ses = new MainSessionUpdate("s1");
+		assertThrows(IOException.class, ()-> callWithContext(ses, ()-> { throw new IOException(); }, null));
+		assertNull(activeContext());
+	}
+}
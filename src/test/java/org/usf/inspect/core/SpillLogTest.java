@@ -0,0 +1,158 @@
+package org.usf.inspect.core;
+
+import static java.time.Instant.EPOCH;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.usf.inspect.core.InspectConfiguration.createObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SpillLogTest {
+
+	private static final int SEGMENT_SIZE = 64 * 1024;
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void testReplayInOrder() throws IOException {
+		var spill = new SpillLog(dir, createObjectMapper(), SEGMENT_SIZE, 10 * SEGMENT_SIZE);
+		for(var i=0; i<1000; i++) { //multiple segments
+			assertTrue(spill.append(batch("s"+i)));
+		}
+		var ids = new ArrayList<String>();
+		assertFalse(spill.replay(sent(b-> ids.size() < 500 && ids.add(((MainSessionSignal)b.get(0)).getId())))); //collector down
+		assertFalse(spill.isEmpty());
+		assertTrue(spill.replay(sent(b-> ids.add(((MainSessionSignal)b.get(0)).getId()))));
+		assertEquals(1000, ids.size());
+		for(var i=0; i<1000; i++) {
+			assertEquals("s"+i, ids.get(i));
+		}
+		assertTrue(spill.isEmpty());
+		spill.close();
+		try(var s = Files.list(dir)) {
+			assertEquals(List.of("lock"), s.map(p-> p.getFileName().toString()).toList()); //stable directory
+		}
+	}
+
+	@Test
+	void testReopen() throws IOException {
+		var spill = new SpillLog(dir, createObjectMapper(), SEGMENT_SIZE, 10 * SEGMENT_SIZE);
+		spill.append(batch("s1"));
+		spill.append(batch("s2"));
+		spill.replay(sent(b-> ((MainSessionSignal)b.get(0)).getId().equals("s1"))); //s2 failed
+		spill.close();
+		var ids = new ArrayList<String>();
+		spill = new SpillLog(dir, createObjectMapper(), SEGMENT_SIZE, 10 * SEGMENT_SIZE); //cursor restored
+		assertTrue(spill.replay(sent(b-> ids.add(((MainSessionSignal)b.get(0)).getId()))));
+		assertEquals(List.of("s2"), ids);
+	}
+
+	@Test
+	void testReplayAfterRestart() throws IOException {
+		var spill = new SpillLog(dir, createObjectMapper(), SEGMENT_SIZE, 10 * SEGMENT_SIZE);
+		for(var i=0; i<1000; i++) { //multiple segments
+			spill.append(batch("s"+i));
+		}
+		spill.close(); //collector unreachable until shutdown
+		var ids = new ArrayList<String>();
+		spill = new SpillLog(dir, createObjectMapper(), SEGMENT_SIZE, 10 * SEGMENT_SIZE);
+		assertFalse(spill.isEmpty());
+		assertTrue(spill.replay(sent(b-> ids.add(((MainSessionSignal)b.get(0)).getId()))));
+		assertEquals(1000, ids.size());
+		assertEquals("s0", ids.get(0));
+		assertEquals("s999", ids.get(999));
+		assertTrue(spill.isEmpty());
+		spill.close();
+	}
+
+	@Test
+	void testLocked() throws IOException {
+		var spill = new SpillLog(dir, createObjectMapper(), SEGMENT_SIZE, 10 * SEGMENT_SIZE);
+		assertThrows(IOException.class, ()-> new SpillLog(dir, createObjectMapper(), SEGMENT_SIZE, 10 * SEGMENT_SIZE));
+		spill.close();
+		new SpillLog(dir, createObjectMapper(), SEGMENT_SIZE, 10 * SEGMENT_SIZE).close(); //released
+	}
+
+	@Test
+	void testStableLocation() throws IOException {
+		var dump = new DumpProperties();
+		dump.setLocation(dir);
+		dump.getSpill().setEnabled(true);
+		dump.getSpill().setSegmentSize(SEGMENT_SIZE);
+		var s1 = TraceDispatcherHub.spillLog(dump, createObjectMapper());
+		s1.append(batch("s1"));
+		var s2 = TraceDispatcherHub.spillLog(dump, createObjectMapper()); //another instance
+		assertTrue(Files.exists(dir.resolve("spill-1")));
+		s2.close();
+		s1.close();
+		var ids = new ArrayList<String>();
+		s1 = TraceDispatcherHub.spillLog(dump, createObjectMapper()); //restart
+		assertTrue(s1.replay(sent(b-> ids.add(((MainSessionSignal)b.get(0)).getId()))));
+		assertEquals(List.of("s1"), ids);
+		s1.close();
+	}
+
+	@Test
+	void testBoundedDiskUsage() throws IOException {
+		var spill = new SpillLog(dir, createObjectMapper(), SEGMENT_SIZE, 2 * SEGMENT_SIZE);
+		for(var i=0; i<2000; i++) {
+			spill.append(batch("s"+i));
+		}
+		try(var s = Files.list(dir)) {
+			assertEquals(4, s.count()); //2 segments + cursor + lock
+		}
+		var ids = new ArrayList<EventTrace>();
+		assertTrue(spill.replay(sent(ids::addAll)));
+		assertInstanceOf(MainSessionSignal.class, ids.get(0));
+		assertEquals("s1999", ((MainSessionSignal)ids.get(ids.size()-1)).getId()); //oldest dropped
+		assertTrue(ids.size() < 2000);
+	}
+
+	@Test
+	void testPartialReplay() throws IOException {
+		var spill = new SpillLog(dir, createObjectMapper(), SEGMENT_SIZE, 10 * SEGMENT_SIZE);
+		spill.append(IntStream.range(0, 5).<EventTrace>mapToObj(i-> new MainSessionSignal("s"+i, EPOCH, "main", "BATCH")).toList());
+		var ids = new ArrayList<String>();
+		assertFalse(spill.replay(b-> { //2 traces sent, then collector down
+			b.subList(0, 2).forEach(t-> ids.add(((MainSessionSignal)t).getId()));
+			return b.subList(2, b.size());
+		}));
+		spill.close();
+		spill = new SpillLog(dir, createObjectMapper(), SEGMENT_SIZE, 10 * SEGMENT_SIZE); //skip restored
+		assertTrue(spill.replay(sent(b-> b.stream().allMatch(t-> ids.add(((MainSessionSignal)t).getId())))));
+		assertEquals(List.of("s0", "s1", "s2", "s3", "s4"), ids); //no duplicates
+		assertTrue(spill.isEmpty());
+		spill.close();
+	}
+
+	@Test
+	void testLocationWithoutDump() {
+		var dump = new DumpProperties();
+		dump.setLocation(dir);
+		dump.getSpill().setEnabled(true);
+		dump.validate(); //dump disabled
+		assertEquals(dir.resolve("inspect"), dump.getLocation());
+	}
+
+	static UnaryOperator<List<EventTrace>> sent(Predicate<List<EventTrace>> dispatcher) {
+		return b-> dispatcher.test(b) ? List.of() : b;
+	}
+
+	static List<EventTrace> batch(String id) {
+		return List.of(new MainSessionSignal(id, EPOCH, "main", "BATCH"));
+	}
+}
@@ -0,0 +1,47 @@
+package org.usf.inspect.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.usf.inspect.core.SqlNormalizer.normalize;
+
+import org.junit.jupiter.api.Test;
+
+class SqlNormalizerTest {
+
+	@Test
+	void testNormalize() {
+		assertNormalized("SELECT * FROM USERS WHERE ID = ?", "select * from users where id = 10");
+		assertNormalized("SELECT * FROM USERS WHERE ID = ?", "SELECT *  FROM users\n WHERE id=?");
+		assertNormalized("SELECT A.NAME, ? FROM T A WHERE A.X >= ?", "select a.name, 'O''Neil' from t a where a.x >= -1.5e-3");
+		assertNormalized("SELECT * FROM T WHERE ID IN(?) AND X IN(?)", "select * from t where id in (1, 2, 3) and x in(?,?)");
+		assertNormalized("SELECT * FROM T WHERE ID IN(SELECT ID FROM U WHERE V = ?)", "select * from t where id in (select id from u where v = 'a')");
+		assertNormalized("SELECT COUNT(*) FROM T WHERE D > ?", "/* app */ select count(*) from t -- comment\n where d > :since");
+		assertNormalized("SELECT \"Name\" FROM T WHERE X = ? AND Y :: INT = ?", "select \"Name\" from t where x = $1 and y::int = 0x1F");
+		assertNormalized("INSERT INTO T(A, B) VALUES(?, ?)", "insert into t(a,b) values (1, $$text$$)");
+	}
+
+	@Test
+	void testUnarySign() {
+		assertNormalized("SELECT * FROM T WHERE X = ?", "select * from t where x=-1");
+		assertNormalized("SELECT ?, ? FROM T WHERE X IN(?) AND Y BETWEEN ? AND ?", "select -1, +2 from t where x in (-1, 2, -3) and y between -5 and -.5");
+		assertNormalized("UPDATE T SET X = X - ?, Y =(? * Y) + ?", "update t set x = x - 1, y = (-2 * y) + 3");
+		assertNormalized("SELECT X - ? FROM T WHERE Y - ? > ?", "select x -1 from t where y-1 > -1");
+		assertEquals(normalize("select * from t where x = -1", 0).hash(), normalize("select * from t where x = 1", 0).hash());
+		assertEquals(normalize("select * from t where x = -1", 0).hash(), normalize("select * from t where x = ?", 0).hash());
+	}
+
+	@Test
+	void testFingerprint() {
+		var q = normalize("select * from t where id = 1", 5);
+		assertEquals("SELEC", q.text()); //capped
+		assertEquals(q.hash(), normalize("SELECT *\tFROM T WHERE ID = 999", 1024).hash()); //stable
+		assertNotEquals(q.hash(), normalize("select * from t where code = 1", 1024).hash());
+		assertEquals(16, q.fingerprint().length());
+		assertNull(normalize("select 1", 0).text());
+	}
+
+	static void assertNormalized(String expected, String sql) {
+		assertEquals(expected, normalize(sql, 1024).text());
+	}
+}
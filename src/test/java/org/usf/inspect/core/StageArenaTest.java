@@ -0,0 +1,89 @@
+package org.usf.inspect.core;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.usf.inspect.core.DatabaseAction.COMMIT;
+import static org.usf.inspect.core.DatabaseAction.FETCH;
+import static org.usf.inspect.core.DatabaseAction.STATEMENT;
+import static org.usf.inspect.core.InspectConfiguration.createObjectMapper;
+import static org.usf.inspect.core.MonotonicClock.anchor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+
+class StageArenaTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void testAdd() {
+		var clock = anchor();
+		var arena = new StageArena("r1", clock, DatabaseRequestStage::new);
+		for(var i=0; i<StageArena.CAPACITY; i++) {
+			assertTrue(arena.add(clock, STATEMENT, i, i+1, -1, i));
+		}
+		assertTrue(arena.isFull());
+		assertFalse(arena.add(clock, STATEMENT, 0, 0, -1, 0));
+		assertFalse(new StageArena("r1", clock, DatabaseRequestStage::new).add(anchor(), STATEMENT, 0, 0, -1, 0)); //other clock
+	}
+
+	@Test
+	void testSerialize() throws IOException {
+		var mapper = createObjectMapper();
+		var arena = arena();
+		var json = mapper.writerFor(new TypeReference<List<EventTrace>>() {}).writeValueAsString(List.of(arena));
+		List<EventTrace> traces = mapper.copy().registerModule(new ParameterNamesModule()).readValue(json, new TypeReference<List<EventTrace>>() {});
+		assertEquals(3, traces.size()); //one stage per row
+		for(var i=0; i<3; i++) {
+			var stg = assertInstanceOf(DatabaseRequestStage.class, traces.get(i));
+			var exp = (DatabaseRequestStage) arena.stage(i);
+			assertEquals(exp.getName(), stg.getName());
+			assertEquals(exp.getStart(), stg.getStart());
+			assertEquals(exp.getEnd(), stg.getEnd());
+			assertEquals("r1", stg.getRequestId());
+			assertEquals(i, stg.getOrder());
+			assertArrayEquals(exp.getCount(), stg.getCount());
+		}
+		assertNull(((DatabaseRequestStage) traces.get(0)).getCount());
+		assertArrayEquals(new long[] {50}, ((DatabaseRequestStage) traces.get(1)).getCount());
+	}
+
+	@Test
+	void testDump() throws IOException {
+		var dumper = new EventTraceDumper(dir, createObjectMapper(), new DumpProperties());
+		dumper.onDispatch(null, List.of(arena()));
+		dumper.rotate();
+		try(var s = Files.list(dir)) {
+			var lines = Files.readAllLines(s.findFirst().orElseThrow());
+			assertEquals(3, lines.size()); //one line per row
+			assertTrue(lines.get(2).contains("\"name\":\"COMMIT\""));
+		}
+	}
+
+	@Test
+	void testCategory() {
+		assertEquals(TraceCategory.STAGE, TraceCategory.of(arena()));
+	}
+
+	static StageArena arena() {
+		var clock = anchor();
+		var arena = new StageArena("r1", clock, DatabaseRequestStage::new);
+		arena.add(clock, STATEMENT, 100, 200, -1, 0);
+		arena.add(clock, FETCH, 200, 900, 50, 1);
+		arena.add(clock, COMMIT, 900, 1000, -1, 2);
+		return arena;
+	}
+}
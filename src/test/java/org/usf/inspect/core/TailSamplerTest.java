@@ -0,0 +1,145 @@
+package org.usf.inspect.core;
+
+import static java.time.Instant.EPOCH;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.usf.inspect.core.ExceptionInfo.fromException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.jupiter.api.Test;
+
+class TailSamplerTest {
+
+	private final List<EventTrace> queue = new ArrayList<>();
+
+	@Test
+	void testRejectSession() {
+		var tail = warmUp(sampler(10, 10));
+		emitSession(tail, "s1", 0, null);
+		assertTrue(queue.isEmpty());
+		assertFalse(tail.emit(new LocalRequestUpdate("s1-r"), t-> true, queue::add)); //late trace
+		assertTrue(queue.isEmpty());
+	}
+
+	@Test
+	void testKeepErrors() {
+		var tail = warmUp(sampler(10, 10));
+		emitSession(tail, "s1", 0, fromException(new IllegalStateException()));
+		assertEquals(4, queue.size()); //signal, request signal & update, session update
+	}
+
+	@Test
+	void testKeepSlowSessions() {
+		var tail = warmUp(sampler(10, 10));
+		emitSession(tail, "fast", 5, null);
+		assertTrue(queue.isEmpty());
+		emitSession(tail, "slow", 20, null);
+		assertEquals(4, queue.size());
+	}
+
+	@Test
+	void testBoundedStaging() {
+		var tail = sampler(1, 10);
+		tail.emit(new MainSessionSignal("s1", EPOCH, "main", null), t-> true, queue::add);
+		assertTrue(queue.isEmpty());
+		tail.emit(new MainSessionSignal("s2", EPOCH, "main", null), t-> true, queue::add); //s1 evicted (kept)
+		assertEquals(1, queue.size());
+		tail = sampler(10, 2);
+		tail.emit(new MainSessionSignal("s3", EPOCH, "main", null), t-> true, queue::add);
+		tail.emit(new LocalRequestSignal("r1", "s3", EPOCH, "main"), t-> true, queue::add); //limit reached (kept)
+		assertEquals(3, queue.size());
+	}
+
+	@Test
+	void testEvictLeastRecentlyUsed() {
+		var tail = sampler(2, 10);
+		tail.emit(new MainSessionSignal("s1", EPOCH, "main", null), t-> true, queue::add);
+		tail.emit(new MainSessionSignal("s2", EPOCH, "main", null), t-> true, queue::add);
+		tail.emit(new LocalRequestSignal("r1", "s1", EPOCH, "main"), t-> true, queue::add); //touch s1
+		tail.emit(new LocalRequestUpdate("r1"), t-> true, queue::add); //touch s1 (request id)
+		tail.emit(new MainSessionSignal("s3", EPOCH, "main", null), t-> true, queue::add); //s2 evicted
+		assertEquals(1, queue.size());
+		assertEquals("s2", ((MainSessionSignal)queue.get(0)).getId());
+		tail.emit(new MainSessionSignal("s4", EPOCH, "main", null), t-> true, queue::add); //s1 evicted
+		assertEquals(4, queue.size()); //s1 signal, request signal & update
+		assertEquals("s1", ((MainSessionSignal)queue.get(1)).getId());
+	}
+
+	@Test
+	void testStagedAdmission() {
+		var tail = sampler(10, 10);
+		tail.emit(new MainSessionSignal("s1", EPOCH, "main", null), t-> true, queue::add);
+		tail.emit(new LocalRequestSignal("r1", "s1", EPOCH, "main"), t-> true, queue::add);
+		assertEquals(2, tail.staged());
+		assertFalse(tail.emit(new LocalRequestSignal("r2", "s1", EPOCH, "main"), t-> false, queue::add)); //queue is full
+		assertEquals(2, tail.staged());
+		assertFalse(tail.emit(new MainSessionSignal("s2", EPOCH, "main", null), t-> false, queue::add));
+		assertEquals(2, tail.staged());
+		var ses = new MainSessionUpdate("s1");
+		ses.setException(fromException(new IllegalStateException()));
+		ses.setEnd(EPOCH);
+		tail.emit(ses, t-> true, queue::add);
+		assertEquals(0, tail.staged());
+		assertEquals(3, queue.size());
+	}
+
+	@Test
+	void testConcurrentSessions() throws InterruptedException {
+		var tail = sampler(1000, 1000);
+		var kept = new ConcurrentLinkedQueue<EventTrace>();
+		var threads = new Thread[8];
+		for(var i=0; i<threads.length; i++) {
+			var n = i;
+			threads[i] = new Thread(()-> {
+				for(var j=0; j<100; j++) {
+					var id = "s"+n+"-"+j;
+					tail.emit(new MainSessionSignal(id, EPOCH, "main", null), t-> true, kept::add);
+					tail.emit(new LocalRequestSignal(id+"-r", id, EPOCH, "main"), t-> true, kept::add);
+					tail.emit(new LocalRequestUpdate(id+"-r"), t-> true, kept::add);
+					var ses = new MainSessionUpdate(id);
+					ses.setException(fromException(new IllegalStateException())); //always kept
+					ses.setEnd(EPOCH);
+					tail.emit(ses, t-> true, kept::add);
+				}
+			});
+			threads[i].start();
+		}
+		for(var t : threads) {
+			t.join();
+		}
+		assertEquals(0, tail.staged());
+		assertEquals(threads.length * 100 * 4, kept.size());
+	}
+
+	TailSampler warmUp(TailSampler tail) {
+		for(var i=0; i<TailSampler.REFRESH_RATE; i++) {
+			emitSession(tail, "w"+i, 10, null); //warm-up: all kept
+		}
+		queue.clear();
+		return tail;
+	}
+
+	void emitSession(TailSampler tail, String id, long duration, ExceptionInfo ex) {
+		tail.emit(new MainSessionSignal(id, EPOCH, "main", null), t-> true, queue::add);
+		tail.emit(new LocalRequestSignal(id+"-r", id, EPOCH, "main"), t-> true, queue::add);
+		tail.emit(new LocalRequestUpdate(id+"-r"), t-> true, queue::add);
+		var ses = new MainSessionUpdate(id);
+		ses.setStart(EPOCH);
+		ses.setException(ex);
+		ses.setEnd(EPOCH.plusMillis(duration));
+		tail.emit(ses, t-> true, queue::add);
+	}
+
+	static TailSampler sampler(int maxSessions, int maxTraces) {
+		var p = new TailSamplingProperties();
+		p.setEnabled(true);
+		p.setMaxSessions(maxSessions);
+		p.setMaxTracesPerSession(maxTraces);
+		p.setLatencyPercentile(.5);
+		return new TailSampler(p);
+	}
+}
@@ -0,0 +1,83 @@
+package org.usf.inspect.core;
+
+import static java.time.Duration.ofMillis;
+import static java.time.Instant.EPOCH;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.usf.inspect.core.ExecutorServiceWrapper.aroundCallables;
+import static org.usf.inspect.core.SessionContextManager.clearContext;
+import static org.usf.inspect.core.SessionContextManager.setActiveContext;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+class VirtualThreadMonitorTest {
+
+	@Test
+	void testFanOut() throws Exception {
+		var ses = new MainSessionUpdate("s1");
+		setActiveContext(ses);
+		try {
+			Callable<String> task = Helper::threadName;
+			try(var es = Executors.newVirtualThreadPerTaskExecutor()) {
+				for(var f : es.invokeAll(aroundCallables(List.of(task, task, task)))) {
+					assertTrue(f.get().startsWith("virtual-"));
+				}
+			}
+		}
+		finally {
+			clearContext(ses);
+		}
+		assertEquals(3, ses.getVirtualThreadCount().get());
+	}
+
+	@Test
+	void testPinnedStage() {
+		var mnt = new VirtualThreadMonitor(ofMillis(20));
+		try {
+			mnt.start();
+			var thrd = Thread.ofVirtual().unstarted(()-> {});
+			var ses = new MainSessionUpdate("s1");
+			VirtualThreadMonitor.bind(thrd, ses);
+			var stg = mnt.pinnedStage(thrd.threadId(), "virtual-1", EPOCH, EPOCH.plusMillis(30), "org.h2.Driver.connect");
+			assertEquals("PINNED", stg.getName());
+			assertEquals("s1", stg.getRequestId());
+			assertEquals("virtual-1", stg.getThreadName());
+			assertEquals("org.h2.Driver.connect", stg.getCommand());
+			assertNull(mnt.pinnedStage(thrd.threadId()+1, "virtual-2", EPOCH, EPOCH, null)); //not bound
+			ses.setSampled(false);
+			assertNull(mnt.pinnedStage(thrd.threadId(), "virtual-1", EPOCH, EPOCH, null));
+		}
+		finally {
+			mnt.close();
+		}
+	}
+
+	@Test
+	void testPinningFrame() {
+		assertEquals("org.h2.Driver.connect", VirtualThreadMonitor.pinningFrame(List.of("java.lang.Object.wait", "jdk.internal.misc.Unsafe.park", "org.h2.Driver.connect", "com.app.Repo.find")));
+		assertEquals("java.lang.Object.wait", VirtualThreadMonitor.pinningFrame(List.of("java.lang.Object.wait", "sun.nio.ch.Net.poll"))); //JDK only
+		assertNull(VirtualThreadMonitor.pinningFrame(List.of()));
+	}
+
+	@Test
+	void testScheduleCleanup() {
+		var mnt = new VirtualThreadMonitor(ofMillis(20));
+		mnt.start();
+		var s1 = new MainSessionUpdate("s1");
+		var s2 = new MainSessionUpdate("s2");
+		VirtualThreadMonitor.bind(Thread.ofVirtual().unstarted(()-> {}), s1);
+		VirtualThreadMonitor.bind(Thread.ofVirtual().unstarted(()-> {}), s2);
+		s1.setEnd(EPOCH); //completed
+		mnt.onSchedule(null);
+		assertEquals(1, mnt.boundThreads());
+		VirtualThreadMonitor.stopMonitor(); //hub shutdown
+		assertEquals(0, mnt.boundThreads());
+		VirtualThreadMonitor.bind(Thread.ofVirtual().unstarted(()-> {}), s2); //no more instance
+		assertEquals(0, mnt.boundThreads());
+	}
+}
@@ -0,0 +1,54 @@
+package org.usf.inspect.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.web.servlet.HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+class HttpRoutePatternsTest {
+
+	@Test
+	void testKey() {
+		var routes = new HttpRoutePatterns();
+		assertNull(routes.key(request("/users/123", null))); //unknown route
+		routes.register(request("/users/123", "/users/{id}"));
+		routes.register(request("/users/me", "/users/me"));
+		routes.register(request("/users/1/orders", "/users/{id}/orders"));
+		assertEquals("/users/{id}", routes.key(request("/users/456", null)));
+		assertEquals("/users/me", routes.key(request("/users/me", null))); //most specific
+		assertEquals("/users/{id}/orders", routes.key(request("/users/9/orders", null)));
+		assertNull(routes.key(request("/products/1", null)));
+		assertEquals("/products/{id}", routes.key(request("/products/1", "/products/{id}"))); //already resolved
+	}
+
+	@Test
+	void testKey_cached() {
+		var routes = new HttpRoutePatterns();
+		routes.register(request("/users/123", "/users/{id}"));
+		assertEquals("/users/{id}", routes.key(request("/users/me", null)));
+		assertNull(routes.key(request("/products/1", null)));
+		assertEquals(2, routes.cachedPaths()); //unknown routes too
+		routes.register(request("/users/me", "/users/me")); //more specific
+		assertEquals(0, routes.cachedPaths());
+		assertEquals("/users/me", routes.key(request("/users/me", null)));
+		for(var i=0; i<HttpRoutePatterns.MAX_PATHS+10; i++) {
+			routes.key(request("/users/" + i, null));
+		}
+		assertEquals(HttpRoutePatterns.MAX_PATHS, routes.cachedPaths()); //bounded
+	}
+
+	static HttpServletRequest request(String path, String pattern) {
+		var attrs = pattern == null ? Map.of() : Map.of(BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+		return (HttpServletRequest) Proxy.newProxyInstance(HttpServletRequest.class.getClassLoader(), new Class<?>[] {HttpServletRequest.class}, (p, m, args)-> switch(m.getName()) {
+			case "getServletPath" -> path;
+			case "getAttribute" -> attrs.get(args[0]);
+			default -> null;
+		});
+	}
+}
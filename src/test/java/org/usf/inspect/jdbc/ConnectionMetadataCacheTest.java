@@ -0,0 +1,102 @@
+package org.usf.inspect.jdbc;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.Test;
+import org.usf.inspect.jdbc.ConnectionMetadataCache.Metadata;
+
+class ConnectionMetadataCacheTest {
+	
+	private final AtomicInteger metaCalls = new AtomicInteger();
+	private final AtomicInteger buildCalls = new AtomicInteger();
+
+	@Test
+	void testGet_concurrentFirstAccess() throws Exception {
+		var cache = new ConnectionMetadataCache();
+		assertNull(cache.get(null)); //unknown target
+		var res = parallelGet(cache, 200, i-> connection("jdbc:postgresql://host:5432/db", "user", "public"));
+		assertEquals(1, metaCalls.get()); //others wait for the first entry
+		for(var m : res) {
+			assertSame(res.get(0), m);
+		}
+		assertEquals("host", res.get(0).host());
+		assertEquals(5432, res.get(0).port());
+		assertEquals("public", res.get(0).schema());
+		assertSame(res.get(0), cache.get(null)); //failed connection
+	}
+
+	@Test
+	void testGet_routing() throws Exception {
+		var cache = new ConnectionMetadataCache(true);
+		var res = parallelGet(cache, 200, i-> connection("jdbc:postgresql://host" + (i % 2) + ":5432/db", "user", "tenant" + (i % 4)));
+		assertEquals(4, cache.size()); //url x schema
+		assertEquals(4, buildCalls.get()); //built once per key
+		assertEquals("host1", res.get(1).host());
+		assertEquals("tenant3", res.get(3).schema());
+		assertNull(cache.get(null));
+	}
+
+	@Test
+	void testIsRouting() {
+		assertFalse(DataSourceWrapper.isRouting(Object.class));
+	}
+	
+	ArrayList<Metadata> parallelGet(ConnectionMetadataCache cache, int n, IntFunction<Connection> cnx) throws Exception {
+		var start = new CountDownLatch(1);
+		var tasks = new ArrayList<Callable<Metadata>>();
+		for(var i=0; i<n; i++) {
+			var c = cnx.apply(i);
+			tasks.add(()-> {
+				start.await();
+				return cache.get(c);
+			});
+		}
+		var es = newFixedThreadPool(32);
+		try {
+			var fts = tasks.stream().map(es::submit).toList();
+			start.countDown();
+			var res = new ArrayList<Metadata>();
+			for(var f : fts) {
+				res.add(f.get());
+			}
+			return res;
+		}
+		finally {
+			es.shutdown();
+		}
+	}
+
+	Connection connection(String url, String user, String schema) {
+		var meta = (DatabaseMetaData) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {DatabaseMetaData.class}, (p, m, args)-> switch(m.getName()) {
+			case "getURL" -> url;
+			case "getUserName" -> user;
+			case "getDatabaseProductName" -> {
+				buildCalls.incrementAndGet();
+				Thread.sleep(10); //slow first access
+				yield "PostgreSQL";
+			}
+			default -> null;
+		});
+		return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class}, (p, m, args)-> switch(m.getName()) {
+			case "getMetaData" -> {
+				metaCalls.incrementAndGet();
+				yield meta;
+			}
+			case "getSchema" -> schema;
+			default -> null;
+		});
+	}
+}
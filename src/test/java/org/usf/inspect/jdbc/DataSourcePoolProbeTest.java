@@ -0,0 +1,94 @@
+package org.usf.inspect.jdbc;
+
+import static java.time.Instant.EPOCH;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.usf.inspect.jdbc.DatabaseRequestMonitorTest.monitor;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+
+class DataSourcePoolProbeTest {
+
+	@Test
+	void testAcquire() throws Exception {
+		var probe = new DataSourcePoolProbe("ds", proxy(DataSource.class));
+		var cnx = proxy(Connection.class);
+		var m1 = monitor(0);
+		var m2 = monitor(0);
+		assertSame(cnx, probe.acquire(()-> cnx, m1));
+		assertTrue(m1.newConnection);
+		assertSame(probe, m1.pool);
+		probe.acquire(()-> cnx, m2);
+		assertFalse(m2.newConnection); //same physical connection
+		var usg = probe.sample(EPOCH);
+		assertEquals(2, usg.getActive());
+		assertEquals(0, usg.getPending());
+		assertEquals(-1, usg.getIdle()); //not a pool
+		assertEquals(2, usg.getAcquired());
+		assertTrue(usg.getMaxWait() <= usg.getTotalWait());
+		probe.release(m1);
+		probe.release(m1); //already released
+		usg = probe.sample(EPOCH);
+		assertEquals(1, usg.getActive());
+		assertEquals(0, usg.getAcquired()); //reset
+	}
+
+	@Test
+	void testAcquireUnsampled() throws Exception {
+		var probe = new DataSourcePoolProbe("ds", proxy(DataSource.class));
+		var cnx = proxy(Connection.class);
+		var lsd = probe.acquire(()-> cnx);
+		assertInstanceOf(LeasedConnection.class, lsd);
+		var m1 = monitor(0);
+		probe.acquire(()-> cnx, m1);
+		assertFalse(m1.newConnection); //same physical connection
+		var usg = probe.sample(EPOCH);
+		assertEquals(2, usg.getActive());
+		assertEquals(2, usg.getAcquired());
+		var arr = new ArrayList<String>();
+		probe.detectLeaks(0, arr::add);
+		assertEquals(2, arr.size());
+		lsd.close();
+		lsd.close(); //already released
+		assertEquals(1, probe.sample(EPOCH).getActive());
+	}
+
+	@Test
+	void testDetectLeaks() throws Exception {
+		var probe = new DataSourcePoolProbe("ds", proxy(DataSource.class));
+		probe.acquire(()-> proxy(Connection.class), monitor(0));
+		var arr = new ArrayList<String>();
+		probe.detectLeaks(Long.MAX_VALUE, arr::add);
+		assertTrue(arr.isEmpty());
+		probe.detectLeaks(0, arr::add);
+		assertEquals(1, arr.size());
+		probe.detectLeaks(0, arr::add); //reported once
+		assertEquals(1, arr.size());
+	}
+
+	@Test
+	void testHikariMethods() {
+		assertNull(DataSourcePoolProbe.hikariMethods(proxy(DataSource.class))); //not in classpath
+	}
+
+	@SuppressWarnings("unchecked")
+	static <T> T proxy(Class<T> type) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (p, m, args)-> switch(m.getName()) {
+			case "isWrapperFor" -> ((Class<?>)args[0]).isInstance(p);
+			case "unwrap" -> p;
+			case "hashCode" -> System.identityHashCode(p);
+			case "equals" -> p == args[0];
+			default -> null;
+		});
+	}
+}
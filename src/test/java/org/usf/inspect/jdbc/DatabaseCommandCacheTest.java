@@ -0,0 +1,44 @@
+package org.usf.inspect.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.usf.inspect.core.DatabaseCommand.INSERT;
+import static org.usf.inspect.core.DatabaseCommand.SELECT;
+
+import org.junit.jupiter.api.Test;
+
+class DatabaseCommandCacheTest {
+
+	@Test
+	void testGet() {
+		var cache = new DatabaseCommandCache(16, 100);
+		var sql = "SELECT * FROM T WHERE ID = ?";
+		assertEquals(SELECT, cache.get(sql));
+		assertEquals(SELECT, cache.get(sql));
+		assertEquals(SELECT, cache.get(new String(sql))); //equals
+		assertNull(cache.get("COMMIT")); //unknown command is cached
+		assertNull(cache.get("COMMIT"));
+		assertEquals(3, cache.getHits());
+		assertEquals(2, cache.getMisses());
+	}
+
+	@Test
+	void testGet_collision() {
+		var cache = new DatabaseCommandCache(1, 100); //single slot
+		assertEquals(SELECT, cache.get("SELECT 1 FROM DUAL"));
+		assertEquals(INSERT, cache.get("INSERT INTO T VALUES(1)")); //evict
+		assertEquals(SELECT, cache.get("SELECT 1 FROM DUAL"));
+		assertEquals(0, cache.getHits());
+		assertEquals(3, cache.getMisses());
+	}
+
+	@Test
+	void testGet_bypass() {
+		var cache = new DatabaseCommandCache(0, 100); //disabled
+		assertEquals(SELECT, cache.get("SELECT 1 FROM DUAL"));
+		cache = new DatabaseCommandCache(16, 10); //too long
+		assertEquals(SELECT, cache.get("SELECT 1 FROM DUAL"));
+		assertNull(cache.get(null));
+		assertEquals(0, cache.getHits() + cache.getMisses());
+	}
+}
@@ -0,0 +1,111 @@
+package org.usf.inspect.jdbc;
+
+import static java.sql.Statement.EXECUTE_FAILED;
+import static java.sql.Statement.SUCCESS_NO_INFO;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.usf.inspect.core.DatabaseAction.COMMIT;
+import static org.usf.inspect.core.DatabaseAction.EXECUTE;
+import static org.usf.inspect.core.DatabaseAction.FETCH;
+import static org.usf.inspect.core.DatabaseCommand.INSERT;
+import static org.usf.inspect.core.DatabaseCommand.SELECT;
+import static org.usf.inspect.core.DatabaseCommand.UPDATE;
+import static org.usf.inspect.core.ExceptionInfo.mainCauseException;
+import static org.usf.inspect.core.MonotonicClock.anchor;
+
+import org.junit.jupiter.api.Test;
+import org.usf.inspect.core.BatchResult;
+import org.usf.inspect.core.DatabaseAction;
+import org.usf.inspect.core.DatabaseCommand;
+import org.usf.inspect.core.DatabaseMonitoringProperties;
+import org.usf.inspect.core.DatabaseRequestStage;
+import org.usf.inspect.core.MonotonicClock;
+
+class DatabaseRequestMonitorTest {
+	
+	private final MonotonicClock clock = anchor();
+
+	@Test
+	void testFoldStage() {
+		var monitor = monitor(10);
+		var agg = monitor.foldStage(stage(EXECUTE, SELECT, 10, 0, 100, 5));
+		assertSame(agg, monitor.foldStage(stage(EXECUTE, SELECT, 11, 200, 250, 3)));
+		assertSame(agg, monitor.foldStage(stage(EXECUTE, SELECT, 12, 300, 600, 2)));
+		assertNotSame(agg, monitor.foldStage(stage(EXECUTE, UPDATE, 13, 600, 700, 1))); //other command
+		assertNotSame(agg, monitor.foldStage(stage(FETCH, null, 14, 700, 800, 1))); //other action
+		var stats = agg.getAggregate();
+		assertEquals(3, stats.getCount());
+		assertEquals(450, stats.getTotalDuration());
+		assertEquals(50, stats.getMinDuration());
+		assertEquals(300, stats.getMaxDuration());
+		assertArrayEquals(new long[] {10}, agg.getCount()); //total rows
+		assertEquals(10, agg.getOrder()); //first occurrence
+		assertEquals(clock.instant(600), agg.getEnd()); //last occurrence
+	}
+
+	@Test
+	void testFoldStage_batch() {
+		var monitor = monitor(10);
+		var stg = stage(EXECUTE, INSERT, 10, 0, 100, 0);
+		DatabaseRequestMonitor.setBatchResult(stg, BatchResult.of(new int[] {1, 1, 1}));
+		var agg = monitor.foldStage(stg);
+		stg = stage(EXECUTE, INSERT, 11, 100, 200, 0);
+		DatabaseRequestMonitor.setBatchResult(stg, BatchResult.of(new int[] {1, EXECUTE_FAILED}));
+		assertSame(agg, monitor.foldStage(stg));
+		assertEquals(5, agg.getBatch().getSize());
+		assertArrayEquals(new int[] {4}, agg.getBatch().getFailures());
+		assertArrayEquals(new long[] {4}, agg.getCount()); //total rows
+		stg = stage(EXECUTE, INSERT, 12, 200, 300, 0);
+		stg.setCount(null);
+		DatabaseRequestMonitor.setBatchResult(stg, BatchResult.of(new int[] {SUCCESS_NO_INFO}));
+		assertNull(stg.getCount()); //unknown rows
+	}
+
+	@Test
+	void testIsFoldable() {
+		var monitor = monitor(10);
+		assertTrue(monitor.isFoldable(stage(EXECUTE, SELECT, 10, 0, 1, 1)));
+		assertFalse(monitor.isFoldable(stage(EXECUTE, SELECT, 9, 0, 1, 1))); //before threshold
+		assertFalse(monitor.isFoldable(stage(COMMIT, null, 10, 0, 1, 1)));
+		var stg = stage(EXECUTE, SELECT, 10, 0, 1, 1);
+		stg.setException(mainCauseException(new IllegalStateException()));
+		assertFalse(monitor.isFoldable(stg)); //verbatim
+		stg = stage(EXECUTE, SELECT, 10, 0, 1, 1);
+		stg.setArgs(new String[] {"schema=a"});
+		assertFalse(monitor.isFoldable(stg));
+	}
+	
+	DatabaseRequestStage stage(DatabaseAction action, DatabaseCommand cmd, int order, long start, long end, long rows) {
+		var stg = new DatabaseRequestStage();
+		stg.setName(action.name());
+		stg.setCommand(cmd == null ? null : cmd.name());
+		stg.setOrder(order);
+		stg.setPeriod(clock, start, end);
+		stg.setCount(new long[] {rows});
+		return stg;
+	}
+	
+	@Test
+	void testParseAndMergeCommand_longSql() {
+		var prop = new DatabaseMonitoringProperties();
+		var monitor = new DatabaseRequestMonitor(new ConnectionMetadataCache(), new DatabaseCommandCache(16, 10, 0), prop); //not cached
+		var e1 = monitor.parseAndMergeCommand("select * from t where x = -1");
+		assertEquals(SELECT, e1.command());
+		assertNotNull(e1.query()); //normalized once per execution
+		var e2 = monitor.parseAndMergeCommand("select * from t where x = 1");
+		assertNotSame(e1, e2);
+		assertEquals(DatabaseRequestMonitor.queryFingerprint(e1), DatabaseRequestMonitor.queryFingerprint(e2));
+	}
+	
+	static DatabaseRequestMonitor monitor(int threshold) {
+		var prop = new DatabaseMonitoringProperties();
+		prop.setStageAggregationThreshold(threshold);
+		return new DatabaseRequestMonitor(new ConnectionMetadataCache(), new DatabaseCommandCache(16, 100), prop);
+	}
+}
@@ -0,0 +1,76 @@
+package org.usf.inspect.jdbc;
+
+import static java.time.Duration.ofNanos;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.Test;
+import org.usf.inspect.core.DatabaseMonitoringProperties;
+import org.usf.inspect.core.FetchStats;
+
+class ResultSetWrapperTest {
+
+	@Test
+	void testStats() throws SQLException {
+		var rs = new ResultSetWrapper(resultSet(3), monitor(true));
+		while(rs.next()) {
+			assertEquals("abc", rs.getString(1));
+			assertEquals(2, rs.getBytes("col").length);
+		}
+		var stats = rs.stats();
+		assertTrue(stats.getFirstRowTime() > 0);
+		assertTrue(stats.getDriverTime() > 0);
+		assertTrue(stats.getThinkTime() > 0);
+		assertEquals(1, stats.getRoundTrips()); //second row
+		assertEquals(15, stats.getBytes());
+	}
+
+	@Test
+	void testStats_noNext() {
+		var rs = new ResultSetWrapper(resultSet(3), monitor(true));
+		var stats = rs.stats();
+		assertEquals(0, stats.getFirstRowTime()); //no sentinel
+		var agg = new FetchStats(10, 10, 0, 0, 0);
+		agg.append(stats);
+		agg.append(new FetchStats(-1, 5, 0, 0, 0)); //previous version
+		assertEquals(10, agg.getFirstRowTime());
+		assertEquals(15, agg.getDriverTime());
+	}
+
+	@Test
+	void testStats_disabled() throws SQLException {
+		var rs = new ResultSetWrapper(resultSet(3), monitor(false));
+		while(rs.next());
+		assertNull(rs.stats());
+	}
+
+	static DatabaseRequestMonitor monitor(boolean enabled) {
+		var prop = new DatabaseMonitoringProperties();
+		prop.getResultSet().setEnabled(enabled);
+		prop.getResultSet().setBytes(true);
+		prop.getResultSet().setStallThreshold(ofNanos(5_000_000));
+		return new DatabaseRequestMonitor(new ConnectionMetadataCache(), new DatabaseCommandCache(16, 100), prop);
+	}
+
+	static ResultSet resultSet(int size) {
+		var row = new int[1];
+		return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class}, (p, m, args)-> switch(m.getName()) {
+			case "next" -> {
+				if(++row[0] == 2) {
+					LockSupport.parkNanos(20_000_000); //next fetch
+				}
+				yield row[0] <= size;
+			}
+			case "getRow" -> row[0] <= size ? row[0] : 0;
+			case "getString" -> "abc";
+			case "getBytes" -> new byte[2];
+			default -> null;
+		});
+	}
+}